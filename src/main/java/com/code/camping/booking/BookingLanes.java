@@ -0,0 +1,155 @@
+package com.code.camping.booking;
+
+import com.code.camping.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Optional single-consumer lanes for wallet mutations. The user id picks the lane, so one
+ * wallet's bookings run one after another in memory instead of queueing on its row lock,
+ * while different users spread over the lanes and proceed in parallel. A full lane queue
+ * fails fast with a 503. When disabled, work runs on the caller's thread.
+ */
+@Component
+@Slf4j
+public class BookingLanes {
+
+    private final boolean enabled;
+    private final Duration timeout;
+    private final ThreadPoolExecutor[] lanes;
+    private final Timer[] latencyTimers;
+    private final Counter rejectedCounter;
+
+    public BookingLanes(
+            MeterRegistry meterRegistry,
+            @Value("${booking.lanes.enabled:false}") boolean enabled,
+            @Value("${booking.lanes.count:16}") int laneCount,
+            @Value("${booking.lanes.queue-capacity:100}") int queueCapacity,
+            @Value("${booking.lanes.timeout:5s}") Duration timeout
+    ) {
+        this.enabled = enabled;
+        this.timeout = timeout;
+        int count = enabled ? laneCount : 0;
+        this.lanes = new ThreadPoolExecutor[count];
+        this.latencyTimers = new Timer[count];
+        for (int lane = 0; lane < count; lane++) {
+            String name = "booking-lane-" + lane;
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                        Thread thread = new Thread(runnable, name);
+                        thread.setDaemon(true);
+                        return thread;
+                    }, new ThreadPoolExecutor.AbortPolicy());
+            lanes[lane] = executor;
+            latencyTimers[lane] = Timer.builder("booking.lanes.latency")
+                    .description("Time from submitting a booking to its lane until it completes")
+                    .tag("lane", String.valueOf(lane))
+                    .register(meterRegistry);
+            Gauge.builder("booking.lanes.queue.depth", executor, e -> e.getQueue().size())
+                    .description("Bookings waiting in the lane")
+                    .tag("lane", String.valueOf(lane))
+                    .register(meterRegistry);
+        }
+        this.rejectedCounter = Counter.builder("booking.lanes.rejected")
+                .description("Bookings rejected because their lane was full")
+                .register(meterRegistry);
+        if (enabled) {
+            log.info("Booking lanes started: {} lanes with queue capacity {}", count, queueCapacity);
+        }
+    }
+
+    /** Runs the work in the user's lane, or directly when lanes are disabled. */
+    public <T> T run(String userId, Supplier<T> work) {
+        if (!enabled) {
+            return work.get();
+        }
+        int lane = Math.floorMod(userId.hashCode(), lanes.length);
+        Timer.Sample sample = Timer.start();
+        // Decides, exactly once, whether the booking runs or is abandoned by a timed out caller
+        AtomicBoolean started = new AtomicBoolean();
+        Future<T> future;
+        try {
+            future = lanes[lane].submit(() -> {
+                if (!started.compareAndSet(false, true)) {
+                    return null;
+                }
+                try {
+                    return work.get();
+                } finally {
+                    sample.stop(latencyTimers[lane]);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new ServiceUnavailableException("Too many bookings in progress, please retry shortly");
+        }
+
+        try {
+            return await(future);
+        } catch (TimeoutException e) {
+            // Only a booking that never started may be abandoned; a running one must be seen through.
+            // Future.cancel cannot tell the two apart, as it also succeeds on a running task.
+            if (started.compareAndSet(false, true)) {
+                future.cancel(false);
+                throw new ServiceUnavailableException("Booking timed out in the queue, please retry shortly");
+            }
+            return awaitStarted(future);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdown();
+        }
+    }
+
+    private <T> T await(Future<T> future) throws TimeoutException {
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Booking was interrupted");
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    private <T> T awaitStarted(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Booking was interrupted");
+        } catch (CancellationException e) {
+            throw new ServiceUnavailableException("Booking was cancelled, please retry shortly");
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    private static RuntimeException unwrap(ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        return new IllegalStateException(e.getCause());
+    }
+}
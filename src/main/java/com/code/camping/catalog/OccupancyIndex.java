@@ -0,0 +1,143 @@
+package com.code.camping.catalog;
+
+import com.code.camping.repository.BookingSpan;
+import com.code.camping.repository.TransactionRepository;
+import com.code.camping.utils.BookingDays;
+import com.code.camping.utils.TransactionCallbacks;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Units booked per product and day, from today onwards. Each product holds an immutable
+ * day-indexed array that writers replace wholesale, so availability checks read it without
+ * locks. Built from the transactions at startup and kept current by bookings after they commit.
+ * It is rebuilt as often as the product catalog is refreshed, to pick up bookings made on other
+ * replicas, and daily to drop past days.
+ */
+@Component
+@Slf4j
+public class OccupancyIndex {
+
+    private final TransactionRepository transactionRepository;
+
+    private volatile Map<String, Occupancy> byProduct = new ConcurrentHashMap<>();
+
+    public OccupancyIndex(TransactionRepository transactionRepository, MeterRegistry meterRegistry) {
+        this.transactionRepository = transactionRepository;
+        Gauge.builder("catalog.occupancy.products", this, index -> index.byProduct.size())
+                .description("Products with upcoming bookings in the occupancy index")
+                .register(meterRegistry);
+    }
+
+    /** Days covered by {@code units[0..]}, starting at {@code firstDay} (epoch day). */
+    private record Occupancy(long firstDay, int[] units) {
+
+        int peak(long from, long to) {
+            int peak = 0;
+            long start = Math.max(from, firstDay);
+            long end = Math.min(to, firstDay + units.length - 1);
+            for (long day = start; day <= end; day++) {
+                peak = Math.max(peak, units[(int) (day - firstDay)]);
+            }
+            return peak;
+        }
+
+        Occupancy add(long from, long to, int quantity) {
+            long first = Math.min(firstDay, from);
+            long last = Math.max(firstDay + units.length - 1, to);
+            int[] next = new int[(int) (last - first + 1)];
+            System.arraycopy(units, 0, next, (int) (firstDay - first), units.length);
+            for (long day = from; day <= to; day++) {
+                next[(int) (day - first)] += quantity;
+            }
+            return new Occupancy(first, next);
+        }
+    }
+
+    @PostConstruct
+    @Scheduled(cron = "${catalog.occupancy.rebuild-cron:0 0 3 * * *}")
+    @Scheduled(fixedDelayString = "${catalog.products.refresh-interval:PT5M}",
+            initialDelayString = "${catalog.products.refresh-interval:PT5M}")
+    public synchronized void rebuild() {
+        long today = LocalDate.now(ZoneOffset.UTC).toEpochDay();
+        List<BookingSpan> bookings = transactionRepository.findBookingsEndingFrom(
+                Date.from(LocalDate.ofEpochDay(today).atStartOfDay(ZoneOffset.UTC).toInstant()));
+
+        Map<String, long[]> ranges = new HashMap<>();
+        for (BookingSpan booking : bookings) {
+            long from = Math.max(today, BookingDays.toDay(booking.getDateStart()).toEpochDay());
+            long to = BookingDays.lastDay(booking.getDateStart(), booking.getDateEnd()).toEpochDay();
+            if (to >= from) {
+                ranges.merge(booking.getProductId(), new long[]{from, to},
+                        (a, b) -> new long[]{Math.min(a[0], b[0]), Math.max(a[1], b[1])});
+            }
+        }
+        Map<String, Occupancy> rebuilt = new ConcurrentHashMap<>();
+        ranges.forEach((productId, range) ->
+                rebuilt.put(productId, new Occupancy(range[0], new int[(int) (range[1] - range[0] + 1)])));
+        for (BookingSpan booking : bookings) {
+            Occupancy occupancy = rebuilt.get(booking.getProductId());
+            long from = Math.max(today, BookingDays.toDay(booking.getDateStart()).toEpochDay());
+            long to = BookingDays.lastDay(booking.getDateStart(), booking.getDateEnd()).toEpochDay();
+            int quantity = booking.getQuantity() == null ? 0 : booking.getQuantity();
+            for (long day = from; day <= to && occupancy != null; day++) {
+                occupancy.units()[(int) (day - occupancy.firstDay())] += quantity;
+            }
+        }
+        byProduct = rebuilt;
+        log.info("Occupancy index built from {} upcoming bookings of {} products", bookings.size(), rebuilt.size());
+    }
+
+    public void book(String productId, Date dateStart, Date dateEnd, int quantity) {
+        TransactionCallbacks.afterCommit(() -> apply(productId, dateStart, dateEnd, quantity));
+    }
+
+    public void unbook(String productId, Date dateStart, Date dateEnd, int quantity) {
+        TransactionCallbacks.afterCommit(() -> apply(productId, dateStart, dateEnd, -quantity));
+    }
+
+    public void unbookAll(List<BookingSpan> bookings) {
+        TransactionCallbacks.afterCommit(() -> bookings.forEach(booking -> apply(booking.getProductId(),
+                booking.getDateStart(), booking.getDateEnd(), booking.getQuantity() == null ? 0 : -booking.getQuantity())));
+    }
+
+    public void remove(String productId) {
+        TransactionCallbacks.afterCommit(() -> removeProduct(productId));
+    }
+
+    /** The most units of the product booked on any day from {@code from} to {@code to}, inclusive. */
+    public int peak(String productId, LocalDate from, LocalDate to) {
+        Occupancy occupancy = byProduct.get(productId);
+        return occupancy == null ? 0 : occupancy.peak(from.toEpochDay(), to.toEpochDay());
+    }
+
+    private synchronized void removeProduct(String productId) {
+        byProduct.remove(productId);
+    }
+
+    private synchronized void apply(String productId, Date dateStart, Date dateEnd, int quantity) {
+        if (dateStart == null || dateEnd == null || quantity == 0) {
+            return;
+        }
+        long from = Math.max(LocalDate.now(ZoneOffset.UTC).toEpochDay(), BookingDays.toDay(dateStart).toEpochDay());
+        long to = BookingDays.lastDay(dateStart, dateEnd).toEpochDay();
+        if (to < from) {
+            return;
+        }
+        byProduct.compute(productId, (id, occupancy) -> occupancy == null
+                ? new Occupancy(from, new int[0]).add(from, to, quantity)
+                : occupancy.add(from, to, quantity));
+    }
+}
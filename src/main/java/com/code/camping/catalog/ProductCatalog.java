@@ -0,0 +1,303 @@
+package com.code.camping.catalog;
+
+import com.code.camping.entity.Product;
+import com.code.camping.repository.ProductRepository;
+import com.code.camping.utils.KeysetPagination;
+import com.code.camping.utils.TransactionCallbacks;
+import com.code.camping.utils.dto.request.ProductRequest;
+import com.code.camping.utils.dto.webResponse.CursorPageResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * Holds every product as an immutable snapshot sorted by id, together with a name search
+ * index. Reads filter, sort and page the current snapshot without taking any lock; writes
+ * build a new snapshot and swap it in after the surrounding transaction commits. The
+ * snapshot is loaded on first use and reloaded on a schedule to pick up changes made by
+ * other replicas. Every snapshot carries a version hashed from its content, from which
+ * listing ETags derive, so replicas holding the same products hand out the same tags.
+ */
+@Component
+@Slf4j
+public class ProductCatalog {
+
+    private static final Comparator<Product> BY_ID = Comparator.comparing(Product::getId);
+
+    private final ProductRepository productRepository;
+    private final Counter hits;
+    private final Counter misses;
+
+    private volatile Snapshot snapshot;
+
+    private record Snapshot(String version, List<Product> products, Map<String, Product> byId, ProductSearchIndex searchIndex) {
+
+        /** Expects the products in id order, so equal content always hashes to the same version. */
+        static Snapshot of(List<Product> products) {
+            Map<String, Product> byId = new HashMap<>();
+            MessageDigest digest = sha256();
+            for (Product product : products) {
+                byId.put(product.getId(), product);
+                String entry = product.getId() + '\0' + product.getName() + '\0' + product.getPrice() + '\0' + product.getStock() + '\n';
+                digest.update(entry.getBytes(StandardCharsets.UTF_8));
+            }
+            String version = HexFormat.of().formatHex(digest.digest());
+            return new Snapshot(version, List.copyOf(products), byId, ProductSearchIndex.of(products));
+        }
+    }
+
+    public ProductCatalog(ProductRepository productRepository, MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.hits = Counter.builder("catalog.products.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("catalog.products.requests").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("catalog.products.size", this, ProductCatalog::size)
+                .description("Products held in the catalog snapshot")
+                .register(meterRegistry);
+        Gauge.builder("catalog.products.search.terms", this, catalog -> {
+                    Snapshot current = catalog.snapshot;
+                    return current == null ? 0 : current.searchIndex().terms();
+                })
+                .description("Distinct name tokens in the product search index")
+                .register(meterRegistry);
+        Gauge.builder("catalog.products.hit.ratio", this, ProductCatalog::hitRatio)
+                .description("Share of catalog reads served without loading from the database")
+                .register(meterRegistry);
+    }
+
+    /**
+     * A name filter is answered from the search index and, under the default id order, the
+     * results keep their relevance ranking; any other sort replaces it.
+     */
+    public Page<Product> find(ProductRequest filter, Pageable pageable) {
+        List<Product> matches = matching(filter);
+        Comparator<Product> order = comparatorFor(pageable.getSort());
+        if (order != null) {
+            matches.sort(order);
+        }
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(matches);
+        }
+        int from = (int) Math.min(pageable.getOffset(), matches.size());
+        int to = Math.min(from + pageable.getPageSize(), matches.size());
+        return new PageImpl<>(new ArrayList<>(matches.subList(from, to)), pageable, matches.size());
+    }
+
+    /**
+     * Seek pagination over the snapshot: the cursor's position is found by binary search in
+     * the sorted matches instead of skipping an offset.
+     */
+    public CursorPageResponse<Product> findAfter(String after, ProductRequest filter, Pageable pageable) {
+        Sort.Order sortOrder = KeysetPagination.orderOf(pageable.getSort());
+        Comparator<Product> order = comparatorFor(KeysetPagination.sortOf(sortOrder));
+        if (order == null) {
+            order = BY_ID;
+        }
+        List<Product> matches = matching(filter);
+        matches.sort(order);
+
+        int from = 0;
+        KeysetPagination.Cursor cursor = KeysetPagination.decode(after, sortOrder);
+        if (cursor != null) {
+            int position = Collections.binarySearch(matches, positionOf(cursor), order);
+            from = position >= 0 ? position + 1 : -position - 1;
+        }
+        int to = Math.min(from + pageable.getPageSize() + 1, matches.size());
+        return KeysetPagination.page(new ArrayList<>(matches.subList(from, to)), pageable.getPageSize(), sortOrder, Product::getId);
+    }
+
+    /** Every product in the current snapshot, in id order. */
+    public List<Product> all() {
+        return current().products();
+    }
+
+    public void put(Product product) {
+        putAll(List.of(product));
+    }
+
+    /** Adds or replaces the products with a single snapshot swap. */
+    public void putAll(Collection<Product> products) {
+        Map<String, Product> copies = new HashMap<>();
+        for (Product product : products) {
+            copies.put(product.getId(), copyOf(product));
+        }
+        TransactionCallbacks.afterCommit(() -> swap(current -> {
+            List<Product> next = new ArrayList<>(current.size() + copies.size());
+            for (Product existing : current) {
+                if (!copies.containsKey(existing.getId())) {
+                    next.add(existing);
+                }
+            }
+            next.addAll(copies.values());
+            next.sort(BY_ID);
+            return next;
+        }));
+    }
+
+    public void remove(String id) {
+        TransactionCallbacks.afterCommit(() -> swap(current -> {
+            List<Product> next = new ArrayList<>(current);
+            next.removeIf(existing -> existing.getId().equals(id));
+            return next;
+        }));
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.products.refresh-interval:PT5M}",
+            initialDelayString = "${catalog.products.refresh-interval:PT5M}")
+    public synchronized void refresh() {
+        if (snapshot != null) {
+            Snapshot loaded = load();
+            // An unchanged reload keeps the current snapshot, its index and its tags
+            if (!loaded.version().equals(snapshot.version())) {
+                snapshot = loaded;
+            }
+        }
+    }
+
+    /**
+     * A strong entity tag for a listing query against the current snapshot. It changes only
+     * when the products do, so a matching tag means the listing is unchanged.
+     */
+    public String etag(String query) {
+        String source = current().version() + ':' + query;
+        byte[] hash = sha256().digest(source.getBytes(StandardCharsets.UTF_8));
+        return '"' + HexFormat.of().formatHex(hash, 0, 16) + '"';
+    }
+
+    public int size() {
+        Snapshot current = snapshot;
+        return current == null ? 0 : current.products().size();
+    }
+
+    private List<Product> matching(ProductRequest filter) {
+        Snapshot current = current();
+        List<String> rankedIds = filter.getName() == null ? null : current.searchIndex().search(filter.getName());
+        Collection<Product> candidates = current.products();
+        if (rankedIds != null) {
+            List<Product> found = new ArrayList<>(rankedIds.size());
+            for (String id : rankedIds) {
+                found.add(current.byId().get(id));
+            }
+            candidates = found;
+        }
+
+        Integer price = filter.getPrice();
+        Integer stock = filter.getStock();
+        List<Product> matches = new ArrayList<>(candidates.size());
+        for (Product product : candidates) {
+            if ((price == null || price.equals(product.getPrice()))
+                    && (stock == null || stock.equals(product.getStock()))) {
+                matches.add(product);
+            }
+        }
+        return matches;
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            hits.increment();
+            return current;
+        }
+        misses.increment();
+        synchronized (this) {
+            if (snapshot == null) {
+                snapshot = load();
+            }
+            return snapshot;
+        }
+    }
+
+    private synchronized void swap(UnaryOperator<List<Product>> change) {
+        // Not loaded yet: the first read will see the change in the database
+        if (snapshot != null) {
+            snapshot = Snapshot.of(change.apply(snapshot.products()));
+        }
+    }
+
+    private Snapshot load() {
+        List<Product> products = new ArrayList<>();
+        for (Product product : productRepository.findAll()) {
+            products.add(copyOf(product));
+        }
+        products.sort(BY_ID);
+        log.debug("Loaded {} products into the catalog", products.size());
+        return Snapshot.of(products);
+    }
+
+    private double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+
+    private static Comparator<Product> comparatorFor(Sort sort) {
+        Comparator<Product> order = null;
+        for (Sort.Order sortOrder : sort) {
+            Comparator<Product> next = switch (sortOrder.getProperty()) {
+                case "id" -> BY_ID;
+                case "name" -> Comparator.comparing(Product::getName, Comparator.nullsFirst(Comparator.naturalOrder()));
+                case "price" -> Comparator.comparing(Product::getPrice, Comparator.nullsFirst(Comparator.naturalOrder()));
+                default -> throw new HttpServerErrorException(HttpStatus.BAD_REQUEST,
+                        "Products cannot be sorted by " + sortOrder.getProperty());
+            };
+            if (sortOrder.isDescending()) {
+                next = next.reversed();
+            }
+            order = order == null ? next : order.thenComparing(next);
+        }
+        // The snapshot is already in ascending id order
+        if (order == BY_ID) {
+            return null;
+        }
+        return order == null ? null : order.thenComparing(BY_ID);
+    }
+
+    private static Product positionOf(KeysetPagination.Cursor cursor) {
+        Product position = Product.builder().id(cursor.id()).build();
+        if (!cursor.property().equals(KeysetPagination.ID)) {
+            BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(position);
+            wrapper.setPropertyValue(cursor.property(), cursor.valueAs(wrapper.getPropertyType(cursor.property())));
+        }
+        return position;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static Product copyOf(Product product) {
+        return Product.builder()
+                .id(product.getId())
+                .name(product.getName())
+                .price(product.getPrice())
+                .stock(product.getStock())
+                .build();
+    }
+}
@@ -0,0 +1,106 @@
+package com.code.camping.catalog;
+
+import com.code.camping.entity.Product;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable inverted index from normalized name tokens to product ids. A query matches a
+ * product when every query token is a prefix of one of the product's name tokens; exact
+ * token matches rank above prefix matches.
+ */
+public class ProductSearchIndex {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final NavigableMap<String, List<String>> postings;
+
+    private ProductSearchIndex(NavigableMap<String, List<String>> postings) {
+        this.postings = postings;
+    }
+
+    public static ProductSearchIndex of(Collection<Product> products) {
+        TreeMap<String, List<String>> postings = new TreeMap<>();
+        for (Product product : products) {
+            for (String token : tokenize(product.getName())) {
+                postings.computeIfAbsent(token, key -> new ArrayList<>()).add(product.getId());
+            }
+        }
+        postings.replaceAll((token, ids) -> List.copyOf(ids));
+        return new ProductSearchIndex(postings);
+    }
+
+    /** Ids of the matching products, best match first; null when the query has no tokens. */
+    public List<String> search(String query) {
+        Set<String> queryTokens = tokenize(query);
+        if (queryTokens.isEmpty()) {
+            return null;
+        }
+
+        Map<String, Integer> scores = null;
+        for (String queryToken : queryTokens) {
+            Map<String, Integer> tokenScores = new HashMap<>();
+            for (Map.Entry<String, List<String>> posting : postings.subMap(queryToken, true, queryToken + Character.MAX_VALUE, false).entrySet()) {
+                int score = posting.getKey().equals(queryToken) ? 2 : 1;
+                for (String id : posting.getValue()) {
+                    tokenScores.merge(id, score, Math::max);
+                }
+            }
+            if (scores == null) {
+                scores = tokenScores;
+            } else {
+                Map<String, Integer> previous = scores;
+                scores = new HashMap<>();
+                for (Map.Entry<String, Integer> entry : tokenScores.entrySet()) {
+                    Integer score = previous.get(entry.getKey());
+                    if (score != null) {
+                        scores.put(entry.getKey(), score + entry.getValue());
+                    }
+                }
+            }
+            if (scores.isEmpty()) {
+                return List.of();
+            }
+        }
+
+        List<Map.Entry<String, Integer>> ranked = new ArrayList<>(scores.entrySet());
+        ranked.sort(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder())
+                .thenComparing(Map.Entry.comparingByKey()));
+        List<String> ids = new ArrayList<>(ranked.size());
+        for (Map.Entry<String, Integer> entry : ranked) {
+            ids.add(entry.getKey());
+        }
+        return ids;
+    }
+
+    public int terms() {
+        return postings.size();
+    }
+
+    static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text == null) {
+            return tokens;
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        for (String token : SEPARATORS.split(normalized.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
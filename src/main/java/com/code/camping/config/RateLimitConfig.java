@@ -1,22 +1,82 @@
 package com.code.camping.config;
 
+import com.code.camping.filter.RateLimitFilter;
+import com.code.camping.repository.RateLimitBucketRepository;
+import com.code.camping.ratelimit.ClientClass;
+import com.code.camping.ratelimit.JdbcRateLimiter;
+import com.code.camping.ratelimit.LocalRateLimiter;
+import com.code.camping.ratelimit.RateLimitBucketRegistry;
+import com.code.camping.ratelimit.RateLimitPolicy;
+import com.code.camping.ratelimit.RateLimiter;
+import com.code.camping.ratelimit.RouteGroup;
 import io.github.bucket4j.Bandwidth;
-import io.github.bucket4j.Bucket;
 import io.github.bucket4j.Refill;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
 
 @Configuration
 public class RateLimitConfig {
 
+    @Value("${rate-limit.period:1m}")
+    private Duration period;
+
     @Bean
-    public Bucket rateLimitBucket() {
-        // Allow 100 requests per minute
-        Bandwidth limit = Bandwidth.classic(100, Refill.greedy(100, Duration.ofMinutes(1)));
-        return Bucket.builder()
-                .addLimit(limit)
-                .build();
+    public RateLimitPolicy rateLimitPolicy(
+            @Value("${rate-limit.anonymous.capacity:60}") long anonymousCapacity,
+            @Value("${rate-limit.user.capacity:100}") long userCapacity,
+            @Value("${rate-limit.admin.capacity:300}") long adminCapacity,
+            @Value("${rate-limit.login.capacity:10}") long loginCapacity,
+            @Value("${rate-limit.browsing.capacity:300}") long browsingCapacity,
+            @Value("${rate-limit.booking.capacity:20}") long bookingCapacity
+    ) {
+        Map<ClientClass, Bandwidth> clientLimits = new EnumMap<>(ClientClass.class);
+        clientLimits.put(ClientClass.ANONYMOUS, perPeriod(anonymousCapacity));
+        clientLimits.put(ClientClass.USER, perPeriod(userCapacity));
+        clientLimits.put(ClientClass.ADMIN, perPeriod(adminCapacity));
+
+        Map<RouteGroup, Bandwidth> routeLimits = new EnumMap<>(RouteGroup.class);
+        routeLimits.put(RouteGroup.LOGIN, perPeriod(loginCapacity));
+        routeLimits.put(RouteGroup.BROWSING, perPeriod(browsingCapacity));
+        routeLimits.put(RouteGroup.BOOKING, perPeriod(bookingCapacity));
+        return new RateLimitPolicy(routeLimits, clientLimits);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "rate-limit.mode", havingValue = "local", matchIfMissing = true)
+    public RateLimiter localRateLimiter(
+            @Value("${rate-limit.max-clients:100000}") long maxClients,
+            @Value("${rate-limit.idle-timeout:10m}") Duration idleTimeout
+    ) {
+        return new LocalRateLimiter(new RateLimitBucketRegistry(maxClients, idleTimeout));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "rate-limit.mode", havingValue = "jdbc")
+    public RateLimiter jdbcRateLimiter(
+            RateLimitBucketRepository rateLimitBucketRepository,
+            @Value("${rate-limit.jdbc.prefetch:10}") long prefetch,
+            @Value("${rate-limit.max-clients:100000}") long maxClients,
+            @Value("${rate-limit.jdbc.prefetch-ttl:1s}") Duration prefetchTtl
+    ) {
+        return new JdbcRateLimiter(rateLimitBucketRepository, prefetch, maxClients, prefetchTtl);
+    }
+
+    // The filter runs inside the security chain, ahead of JWT authentication
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration(RateLimitFilter rateLimitFilter) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(rateLimitFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
+    private Bandwidth perPeriod(long capacity) {
+        return Bandwidth.classic(capacity, Refill.greedy(capacity, period));
     }
-} 
\ No newline at end of file
+}
@@ -1,15 +1,19 @@
 package com.code.camping.controller;
 
+import com.code.camping.security.JwtUtils;
+import com.code.camping.security.TokenRevocationList;
 import com.code.camping.service.AdminService;
 import com.code.camping.service.UserService;
 import com.code.camping.utils.dto.request.LoginAdminRequest;
 import com.code.camping.utils.dto.request.LoginUserRequest;
 import com.code.camping.utils.dto.request.RegisterAdminRequest;
 import com.code.camping.utils.dto.request.RegisterUserRequest;
+import com.code.camping.utils.dto.response.AdminResponse;
 import com.code.camping.utils.dto.response.LoginAdminResponse;
 import com.code.camping.utils.dto.response.LoginUserResponse;
 import com.code.camping.utils.dto.response.UserResponse;
 import com.code.camping.utils.dto.webResponse.WebResponse;
+import io.jsonwebtoken.Claims;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
@@ -18,6 +22,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.client.HttpServerErrorException;
 
 import java.time.LocalDateTime;
 
@@ -30,6 +35,8 @@ public class AuthController {
 
     private final UserService userService;
     private final AdminService adminService;
+    private final JwtUtils jwtUtils;
+    private final TokenRevocationList tokenRevocationList;
 
     @PostMapping("/register/user")
     @Operation(summary = "Register new user", description = "Register a new user account")
@@ -47,12 +54,12 @@ public class AuthController {
 
     @PostMapping("/register/admin")
     @Operation(summary = "Register new admin", description = "Register a new admin account")
-    public ResponseEntity<WebResponse<UserResponse>> registerAdmin(@Valid @RequestBody RegisterAdminRequest request) {
+    public ResponseEntity<WebResponse<AdminResponse>> registerAdmin(@Valid @RequestBody RegisterAdminRequest request) {
         log.info("Registering new admin with email: {}", request.getEmail());
-        UserResponse response = UserResponse.fromUser(adminService.create(request));
+        AdminResponse response = AdminResponse.fromAdmin(adminService.create(request));
         
         return ResponseEntity.status(HttpStatus.CREATED)
-                .body(WebResponse.<UserResponse>builder()
+                .body(WebResponse.<AdminResponse>builder()
                         .data(response)
                         .message("Admin registered successfully")
                         .timestamp(LocalDateTime.now())
@@ -84,4 +91,21 @@ public class AuthController {
                 .timestamp(LocalDateTime.now())
                 .build());
     }
-} 
\ No newline at end of file
+
+    @PostMapping("/logout")
+    @Operation(summary = "Logout", description = "Revoke the access token sent in the Authorization header")
+    public ResponseEntity<WebResponse<String>> logout(@RequestHeader(name = "Authorization") String accessToken) {
+        Claims claims = jwtUtils.decodeAccessToken(accessToken);
+        if (claims.getId() == null) {
+            throw new HttpServerErrorException(HttpStatus.BAD_REQUEST, "Token has no id and cannot be revoked");
+        }
+        log.info("Logout for: {}", claims.getSubject());
+        tokenRevocationList.revoke(claims.getId(), claims.getExpiration());
+
+        return ResponseEntity.ok(WebResponse.<String>builder()
+                .data("Token revoked")
+                .message("Logged out successfully")
+                .timestamp(LocalDateTime.now())
+                .build());
+    }
+}
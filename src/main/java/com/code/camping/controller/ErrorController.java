@@ -1,9 +1,15 @@
 package com.code.camping.controller;
 
+import com.code.camping.exception.InsufficientBalanceException;
+import com.code.camping.exception.InsufficientStockException;
+import com.code.camping.exception.ServiceUnavailableException;
 import com.code.camping.utils.dto.webResponse.Res;
+import com.code.camping.utils.dto.webResponse.WebResponse;
 import lombok.AllArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -40,6 +46,28 @@ public class ErrorController {
         return Res.renderJson(errors, "Validation Errors", HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(AccessDeniedException.class)
+    public ResponseEntity<?> handleAccessDeniedException(AccessDeniedException e) {
+        return Res.renderJson(null, "Access denied", HttpStatus.FORBIDDEN);
+    }
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<?> handleServiceUnavailableException(ServiceUnavailableException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(WebResponse.builder().message(e.getMessage()).build());
+    }
+
+    @ExceptionHandler(InsufficientStockException.class)
+    public ResponseEntity<?> handleInsufficientStockException(InsufficientStockException e) {
+        return Res.renderJson(null, e.getMessage(), HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(InsufficientBalanceException.class)
+    public ResponseEntity<?> handleInsufficientBalanceException(InsufficientBalanceException e) {
+        return Res.renderJson(null, e.getMessage(), HttpStatus.PAYMENT_REQUIRED);
+    }
+
     @ExceptionHandler(WeatherDataNotFoundException.class)
     public ResponseEntity<?> handleWeatherDataNotFoundException(WeatherDataNotFoundException e) {
         return Res.renderJson(null, e.getMessage(), HttpStatus.NOT_FOUND);
@@ -58,6 +86,4 @@ public class ErrorController {
         };
     }
 
-     // Exception untuk uang tidak cukup
-
 }
@@ -1,71 +1,104 @@
 package com.code.camping.controller;
 
 import com.code.camping.entity.Product;
-import com.code.camping.entity.User;
-import com.code.camping.security.JwtUtils;
-import com.code.camping.service.AdminService;
+import com.code.camping.service.ProductImportService;
 import com.code.camping.service.ProductService;
-import com.code.camping.service.UserService;
 import com.code.camping.utils.dto.request.ProductRequest;
+import com.code.camping.utils.dto.response.ImportReport;
 import com.code.camping.utils.dto.response.ProductResponse;
-import com.code.camping.utils.dto.response.UserResponse;
+import com.code.camping.utils.dto.webResponse.CursorPageResponse;
 import com.code.camping.utils.dto.webResponse.PageResponse;
 import com.code.camping.utils.dto.webResponse.Res;
-import io.jsonwebtoken.Claims;
-import jakarta.validation.Valid;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.AllArgsConstructor;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
-import java.util.Date;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
 
 @AllArgsConstructor
 @RestController
 @RequestMapping("/products")
 public class ProductController {
 
-    private final AdminService admin_service;
     private final ProductService product_service;
-    private final JwtUtils jwtUtils;
+    private final ProductImportService product_import_service;
 
     @PostMapping()
-    public ResponseEntity<?> create(@RequestBody ProductRequest request, @RequestHeader(name = "Authorization") String access_token) {
-        Claims jwtPayload = jwtUtils.decodeAccessToken(access_token);
-        Date currentDate = new Date();
-        boolean isProductIdJWTequalsProductIdReqParams = jwtPayload.getSubject().equals(admin_service.getById(jwtPayload.getSubject()).getId());
-        boolean isTokenNotYetExpired = currentDate.before(jwtPayload.getExpiration());
-
-        if (isProductIdJWTequalsProductIdReqParams && isTokenNotYetExpired) {
-            Product product = product_service.create(request);
-            ProductResponse response = ProductResponse.fromProduct(product);
-            return Res.renderJson(response, "Product ID Retrieved Successfully", HttpStatus.OK);
-        } else {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Access denied or Token expired");
-        }
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> create(@RequestBody ProductRequest request) {
+        Product product = product_service.create(request);
+        ProductResponse response = ProductResponse.fromProduct(product);
+        return Res.renderJson(response, "Product ID Retrieved Successfully", HttpStatus.OK);
     }
 
 
+    @PostMapping(path = "/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> importProducts(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                            HttpServletRequest request) throws IOException {
+        Charset charset = contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8;
+        Reader body = new InputStreamReader(request.getInputStream(), charset);
+        ImportReport report = MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType)
+                ? product_import_service.importNdjson(body)
+                : product_import_service.importCsv(body);
+        return Res.renderJson(report, "Products Imported", HttpStatus.OK);
+    }
+
     @GetMapping
     public ResponseEntity<?> getAll(
-            @RequestHeader(name = "Authorization") String access_token,
             @PageableDefault(page = 0, size = 10, sort = "id", direction = Sort.Direction.ASC) Pageable page,
-            @ModelAttribute ProductRequest request) {
+            @ModelAttribute ProductRequest request,
+            ServletWebRequest webRequest) {
+
+        if (isNotModified(webRequest)) {
+            return null;
+        }
+        PageResponse<Product> res = new PageResponse<>(product_service.getAll(page, request));
+        return Res.renderJson(res, "ok", HttpStatus.OK);
+    }
 
-        Claims jwtPayload = jwtUtils.decodeAccessToken(access_token);
-        Date currentDate = new Date();
-        boolean isTokenNotYetExpired = currentDate.before(jwtPayload.getExpiration());
+    @GetMapping(params = "after")
+    public ResponseEntity<?> getAllAfter(
+            @RequestParam String after,
+            @PageableDefault(size = 10, sort = "id", direction = Sort.Direction.ASC) Pageable page,
+            @ModelAttribute ProductRequest request,
+            ServletWebRequest webRequest) {
 
-        if (isTokenNotYetExpired) {
-            PageResponse<Product> res = new PageResponse<>(product_service.getAll(page, request));
-            return Res.renderJson(res, "ok", HttpStatus.OK);
-        } else {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Token expired");
+        if (isNotModified(webRequest)) {
+            return null;
         }
+        CursorPageResponse<Product> res = product_service.getAllAfter(after, page, request);
+        return Res.renderJson(res, "ok", HttpStatus.OK);
+    }
+
+    @GetMapping(path = "/available")
+    public ResponseEntity<?> getAvailable(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "1") int quantity) {
 
+        List<ProductResponse> res = product_service.getAvailable(from, to, quantity).stream()
+                .map(ProductResponse::fromProduct)
+                .toList();
+        return Res.renderJson(res, "ok", HttpStatus.OK);
     }
 
     // @GetMapping(path = "/{id_product}")
@@ -82,38 +115,31 @@ public class ProductController {
     // }
 
     @PutMapping(path = "/update")
-    public ResponseEntity<?> update(@RequestHeader(name = "Authorization") String access_token, @RequestBody Product request) {
-        Claims jwtPayload = jwtUtils.decodeAccessToken(access_token);
-        Date currentDate = new Date();
-        boolean isProductIdJWTequalsProductIdReqParams = jwtPayload.getSubject().equals(admin_service.getById(jwtPayload.getSubject()).getId());
-        boolean isTokenNotYetExpired = currentDate.before(jwtPayload.getExpiration());
-
-        if (isProductIdJWTequalsProductIdReqParams && isTokenNotYetExpired) {
-            Product updatedProduct = product_service.update(request);
-            return ResponseEntity.ok(ProductResponse.fromProduct(updatedProduct));
-        } else {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Access denied or Token expired");
-        }
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> update(@RequestBody Product request) {
+        Product updatedProduct = product_service.update(request);
+        return ResponseEntity.ok(ProductResponse.fromProduct(updatedProduct));
     }
 
 
     @DeleteMapping(path = "/{id_product}")
-    public ResponseEntity<?> delete(@RequestHeader(name = "Authorization") String access_token, @PathVariable String id_product) {
-        Claims jwtPayload = jwtUtils.decodeAccessToken(access_token);
-        Date currentDate = new Date();
-        boolean isProductIdJWTequalsProductIdReqParams = jwtPayload.getSubject().equals(admin_service.getById(jwtPayload.getSubject()).getId());
-        boolean isTokenNotYetExpired = currentDate.before(jwtPayload.getExpiration());
-
-        if (isProductIdJWTequalsProductIdReqParams && isTokenNotYetExpired) {
-            try {
-                product_service.delete(id_product);
-                return Res.renderJson(null, "Product Deleted Successfully", HttpStatus.OK);
-            } catch (Exception e) {
-                return Res.renderJson(null, "Failed to Delete Product", HttpStatus.INTERNAL_SERVER_ERROR);
-            }
-        } else {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Access denied or Token expired");
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> delete(@PathVariable String id_product) {
+        try {
+            product_service.delete(id_product);
+            return Res.renderJson(null, "Product Deleted Successfully", HttpStatus.OK);
+        } catch (Exception e) {
+            return Res.renderJson(null, "Failed to Delete Product", HttpStatus.INTERNAL_SERVER_ERROR);
         }
+    }
 
+    // Answers 304 from the catalog version alone, before any lookup or serialization
+    private boolean isNotModified(ServletWebRequest webRequest) {
+        HttpServletRequest request = webRequest.getRequest();
+        String query = request.getRequestURI() + '?' + Objects.toString(request.getQueryString(), "");
+        if (webRequest.getResponse() != null) {
+            webRequest.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+        }
+        return webRequest.checkNotModified(product_service.getListingEtag(query));
     }
 }
@@ -4,6 +4,7 @@ import com.code.camping.entity.User;
 import com.code.camping.service.UserService;
 import com.code.camping.utils.dto.request.RegisterUserRequest;
 import com.code.camping.utils.dto.response.UserResponse;
+import com.code.camping.utils.dto.webResponse.CursorPageResponse;
 import com.code.camping.utils.dto.webResponse.PageResponse;
 import com.code.camping.utils.dto.webResponse.WebResponse;
 import io.swagger.v3.oas.annotations.Operation;
@@ -34,7 +35,7 @@ public class UserController {
 
     @GetMapping("/{id}")
     @Operation(summary = "Get user by ID", description = "Retrieve user information by ID")
-    @PreAuthorize("hasRole('USER') and #id == authentication.principal.username or hasRole('ADMIN')")
+    @PreAuthorize("hasRole('USER') and #id == authentication.principal.id or hasRole('ADMIN')")
     public ResponseEntity<WebResponse<UserResponse>> getUserById(
             @Parameter(description = "User ID") @PathVariable String id) {
         log.info("Fetching user with ID: {}", id);
@@ -66,9 +67,28 @@ public class UserController {
                 .build());
     }
 
+    @GetMapping(params = "after")
+    @Operation(summary = "Get users after a cursor", description = "Retrieve users with keyset pagination; pass an empty cursor for the first page")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<WebResponse<CursorPageResponse<User>>> getAllUsersAfter(
+            @Parameter(description = "Cursor from the previous page's next_cursor") @RequestParam String after,
+            @Parameter(description = "Page size and sorting") 
+            @PageableDefault(size = 10, sort = "id", direction = Sort.Direction.ASC) Pageable page,
+            @Parameter(description = "Search criteria") @ModelAttribute RegisterUserRequest searchCriteria) {
+        
+        log.info("Fetching users after cursor with size: {}", page.getPageSize());
+        CursorPageResponse<User> response = userService.getAllAfter(after, page, searchCriteria);
+        
+        return ResponseEntity.ok(WebResponse.<CursorPageResponse<User>>builder()
+                .data(response)
+                .message("Users retrieved successfully")
+                .timestamp(LocalDateTime.now())
+                .build());
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Update user", description = "Update user information")
-    @PreAuthorize("hasRole('USER') and #id == authentication.principal.username or hasRole('ADMIN')")
+    @PreAuthorize("hasRole('USER') and #id == authentication.principal.id or hasRole('ADMIN')")
     public ResponseEntity<WebResponse<UserResponse>> updateUser(
             @Parameter(description = "User ID") @PathVariable String id,
             @Valid @RequestBody RegisterUserRequest request) {
@@ -87,7 +107,7 @@ public class UserController {
 
     @DeleteMapping("/{id}")
     @Operation(summary = "Delete user", description = "Delete user by ID")
-    @PreAuthorize("hasRole('USER') and #id == authentication.principal.username or hasRole('ADMIN')")
+    @PreAuthorize("hasRole('USER') and #id == authentication.principal.id or hasRole('ADMIN')")
     public ResponseEntity<WebResponse<String>> deleteUser(
             @Parameter(description = "User ID") @PathVariable String id) {
         
@@ -0,0 +1,42 @@
+package com.code.camping.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.Date;
+
+@Entity
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "idempotency_keys")
+public class IdempotencyKey {
+
+    // The account id and the client's key, so keys from different accounts never collide
+    @Id
+    @Column(length = 320)
+    private String id;
+
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    // Null while the first request is still being processed, 0 once it ran but before its response is recorded
+    @Column(name = "response_status")
+    private Integer responseStatus;
+
+    @Column(name = "content_type")
+    private String contentType;
+
+    @Lob
+    @Column(name = "response_body")
+    private byte[] responseBody;
+
+    @Column(name = "created_at", nullable = false)
+    private Date createdAt;
+
+    // An unfinished claim may be taken over once this has passed
+    @Column(name = "locked_until")
+    private Date lockedUntil;
+}
@@ -20,6 +20,8 @@ public class Product {
     private String id;
     private String name;
     private Integer price;
+    // Units available per day; null means the product's availability is not tracked
+    private Integer stock;
 
     @OneToMany(cascade = CascadeType.ALL, mappedBy = "product")
     @JsonIgnore
@@ -0,0 +1,31 @@
+package com.code.camping.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * Units of a product reserved on one day, out of the product's stock on that day.
+ */
+@Entity
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@IdClass(ProductInventoryId.class)
+@Table(name = "product_inventory")
+public class ProductInventory {
+
+    @Id
+    @Column(name = "product_id")
+    private String productId;
+
+    @Id
+    @Column(name = "inventory_day")
+    private LocalDate day;
+
+    private int reserved;
+    private int capacity;
+}
@@ -0,0 +1,14 @@
+package com.code.camping.entity;
+
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductInventoryId implements Serializable {
+    private String productId;
+    private LocalDate day;
+}
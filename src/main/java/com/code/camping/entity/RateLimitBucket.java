@@ -0,0 +1,22 @@
+package com.code.camping.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "rate_limit_buckets")
+public class RateLimitBucket {
+
+    @Id
+    private String bucketKey;
+    private long tokens;
+    private long refilledAt;
+
+    @Version
+    private Long version;
+}
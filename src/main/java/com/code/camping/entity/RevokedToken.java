@@ -0,0 +1,21 @@
+package com.code.camping.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.Date;
+
+@Entity
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "revoked_tokens")
+public class RevokedToken {
+
+    @Id
+    private String jti;
+    private Date expiresAt;
+    private Date revokedAt;
+}
@@ -0,0 +1,228 @@
+package com.code.camping.filter;
+
+import com.code.camping.idempotency.IdempotencyStore;
+import com.code.camping.idempotency.IdempotencyStore.Claim;
+import com.code.camping.idempotency.IdempotencyStore.Outcome;
+import com.code.camping.idempotency.IdempotencyStore.StoredResponse;
+import com.code.camping.security.AccountPrincipal;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.Map;
+
+/**
+ * Makes booking and wallet mutations safe to retry. A request carrying an Idempotency-Key
+ * runs once per account and key; retries of the same request get the recorded response
+ * back, and a retry that arrives while the first attempt is still running is turned away
+ * instead of being processed twice. Only successful responses are recorded, since failed
+ * requests roll back and may be retried for real. A key whose request succeeded is never
+ * released, even when recording its response fails, because the mutation has committed.
+ */
+@Component
+@Slf4j
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private static final byte[] INVALID_KEY_BODY = body("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+    private static final byte[] IN_PROGRESS_BODY = body("A request with this Idempotency-Key is still being processed");
+    private static final byte[] MISMATCH_BODY = body("Idempotency-Key was already used for a different request");
+    private static final byte[] EXECUTED_BODY = body("A request with this Idempotency-Key was already processed, but its response is not available");
+
+    private final IdempotencyStore idempotencyStore;
+    private final Map<Outcome, Counter> outcomeCounters = new EnumMap<>(Outcome.class);
+
+    public IdempotencyFilter(IdempotencyStore idempotencyStore, MeterRegistry meterRegistry) {
+        this.idempotencyStore = idempotencyStore;
+        for (Outcome outcome : Outcome.values()) {
+            outcomeCounters.put(outcome, Counter.builder("idempotency.requests")
+                    .tag("outcome", outcome.name().toLowerCase()).register(meterRegistry));
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String method = request.getMethod();
+        String path = request.getRequestURI();
+        return request.getHeader(KEY_HEADER) == null
+                || !("POST".equals(method) || "PUT".equals(method))
+                || !(path.startsWith("/transaction") || path.startsWith("/wallets"));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof AccountPrincipal account)) {
+            // Left to the authorization rules to reject
+            filterChain.doFilter(request, response);
+            return;
+        }
+        String idempotencyKey = request.getHeader(KEY_HEADER);
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            write(response, HttpStatus.BAD_REQUEST, INVALID_KEY_BODY);
+            return;
+        }
+
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request);
+        String key = account.getId() + ":" + idempotencyKey;
+        String requestHash = fingerprint(request, cachedRequest.body);
+        Claim claim = idempotencyStore.claim(key, requestHash);
+        outcomeCounters.get(claim.outcome()).increment();
+
+        switch (claim.outcome()) {
+            case COMPLETED -> replay(response, claim.response());
+            case IN_PROGRESS -> write(response, HttpStatus.CONFLICT, IN_PROGRESS_BODY);
+            case MISMATCH -> write(response, HttpStatus.UNPROCESSABLE_ENTITY, MISMATCH_BODY);
+            case EXECUTED -> write(response, HttpStatus.CONFLICT, EXECUTED_BODY);
+            case CLAIMED -> {
+                ContentCachingResponseWrapper cachedResponse = new ContentCachingResponseWrapper(response);
+                boolean succeeded = false;
+                try {
+                    filterChain.doFilter(cachedRequest, cachedResponse);
+                    succeeded = HttpStatus.valueOf(cachedResponse.getStatus()).is2xxSuccessful();
+                } finally {
+                    if (succeeded) {
+                        record(key, requestHash, cachedResponse);
+                    } else {
+                        idempotencyStore.release(key);
+                    }
+                    cachedResponse.copyBodyToResponse();
+                }
+            }
+        }
+    }
+
+    private void record(String key, String requestHash, ContentCachingResponseWrapper response) {
+        try {
+            idempotencyStore.complete(key, requestHash, new StoredResponse(response.getStatus(),
+                    response.getContentType(), response.getContentAsByteArray()));
+        } catch (RuntimeException e) {
+            // The key stays claimed; once marked executed, other replicas answer retries with 409 for good
+            log.error("Could not record the response for idempotency key {}", key, e);
+        }
+    }
+
+    private static void replay(HttpServletResponse response, StoredResponse stored) throws IOException {
+        log.debug("Replaying recorded response for a repeated Idempotency-Key");
+        response.setStatus(stored.status());
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        byte[] body = stored.body() != null ? stored.body() : new byte[0];
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private static void write(HttpServletResponse response, HttpStatus status, byte[] body) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private static String fingerprint(HttpServletRequest request, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((request.getMethod() + " " + request.getRequestURI() + "\n").getBytes(StandardCharsets.UTF_8));
+            digest.update(body);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static byte[] body(String message) {
+        return ("{\"data\":null,\"message\":\"" + message + "\",\"timestamp\":null}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    /** Reads the body up front so it can be fingerprinted and still reach the controller. */
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = request.getInputStream().readAllBytes();
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // The body is already in memory, so it can be read in full right away
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    try {
+                        if (!isFinished()) {
+                            listener.onDataAvailable();
+                        }
+                        if (isFinished()) {
+                            listener.onAllDataRead();
+                        }
+                    } catch (IOException e) {
+                        listener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return input.read(buffer, offset, length);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+    }
+}
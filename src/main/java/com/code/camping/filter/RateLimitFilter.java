@@ -1,36 +1,111 @@
 package com.code.camping.filter;
 
-import io.github.bucket4j.Bucket;
+import com.code.camping.ratelimit.ClientClass;
+import com.code.camping.ratelimit.RateLimitPolicy;
+import com.code.camping.ratelimit.RateLimiter;
+import com.code.camping.ratelimit.RouteGroup;
+import com.code.camping.security.AccountPrincipal;
+import com.code.camping.security.TokenVerifier;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.ConsumptionProbe;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Applies the route group's limit before JWT authentication, so rejected requests never
+ * pay for token parsing or an account lookup. Callers are identified by the claims of a
+ * token that was already verified earlier; unknown tokens and anonymous callers are
+ * limited by remote IP.
+ */
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class RateLimitFilter extends OncePerRequestFilter {
 
-    private final Bucket rateLimitBucket;
+    public static final String LIMIT_HEADER = "X-RateLimit-Limit";
+    public static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+
+    private static final byte[] REJECTION_BODY =
+            "{\"data\":null,\"message\":\"Rate limit exceeded. Please try again later.\",\"timestamp\":null}"
+                    .getBytes(StandardCharsets.UTF_8);
+
+    private final RateLimiter rateLimiter;
+    private final RateLimitPolicy rateLimitPolicy;
+    private final TokenVerifier tokenVerifier;
+    private final Map<RouteGroup, Counter> consumedCounters = new EnumMap<>(RouteGroup.class);
+    private final Map<RouteGroup, Counter> rejectedCounters = new EnumMap<>(RouteGroup.class);
+
+    public RateLimitFilter(RateLimiter rateLimiter, RateLimitPolicy rateLimitPolicy,
+                           TokenVerifier tokenVerifier, MeterRegistry meterRegistry) {
+        this.rateLimiter = rateLimiter;
+        this.rateLimitPolicy = rateLimitPolicy;
+        this.tokenVerifier = tokenVerifier;
+        for (RouteGroup routeGroup : RouteGroup.values()) {
+            String group = routeGroup.name().toLowerCase();
+            consumedCounters.put(routeGroup, Counter.builder("rate.limit.requests")
+                    .tag("group", group).tag("outcome", "consumed").register(meterRegistry));
+            rejectedCounters.put(routeGroup, Counter.builder("rate.limit.requests")
+                    .tag("group", group).tag("outcome", "rejected").register(meterRegistry));
+        }
+        Gauge.builder("rate.limit.buckets.active", rateLimiter, RateLimiter::activeBuckets)
+                .description("Rate limit buckets held in memory")
+                .register(meterRegistry);
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, 
                                   HttpServletResponse response, 
                                   FilterChain filterChain) throws ServletException, IOException {
-        
-        if (rateLimitBucket.tryConsume(1)) {
+
+        RouteGroup routeGroup = RouteGroup.of(request);
+        String clientKey = "ip:" + request.getRemoteAddr();
+        ClientClass clientClass = ClientClass.ANONYMOUS;
+
+        String authHeader = request.getHeader("Authorization");
+        if (!rateLimitPolicy.isPerIp(routeGroup) && authHeader != null) {
+            Claims claims = tokenVerifier.peek(authHeader);
+            AccountPrincipal account = claims != null ? AccountPrincipal.fromClaims(claims) : null;
+            if (account != null) {
+                clientKey = "account:" + account.getId();
+                clientClass = account.isAdmin() ? ClientClass.ADMIN : ClientClass.USER;
+            }
+        }
+
+        String bucketKey = routeGroup.name() + ":" + clientKey;
+        Bandwidth limit = rateLimitPolicy.limitFor(routeGroup, clientClass);
+        ConsumptionProbe probe = rateLimiter.tryConsume(bucketKey, limit);
+        response.setHeader(LIMIT_HEADER, String.valueOf(limit.getCapacity()));
+        response.setHeader(REMAINING_HEADER, String.valueOf(probe.getRemainingTokens()));
+
+        if (probe.isConsumed()) {
+            consumedCounters.get(routeGroup).increment();
             filterChain.doFilter(request, response);
         } else {
-            log.warn("Rate limit exceeded for IP: {}", request.getRemoteAddr());
+            rejectedCounters.get(routeGroup).increment();
+            log.warn("Rate limit exceeded for {}", bucketKey);
+            long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(probe.getNanosToWaitForRefill() + 999_999_999L));
             response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
-            response.getWriter().write("Rate limit exceeded. Please try again later.");
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setContentLength(REJECTION_BODY.length);
+            response.getOutputStream().write(REJECTION_BODY);
         }
     }
-} 
\ No newline at end of file
+} 
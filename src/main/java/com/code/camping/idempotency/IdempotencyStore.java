@@ -0,0 +1,134 @@
+package com.code.camping.idempotency;
+
+import com.code.camping.entity.IdempotencyKey;
+import com.code.camping.repository.IdempotencyKeyRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Date;
+
+/**
+ * Idempotency keys and the responses recorded for them. The table's primary key decides
+ * which request claims a key across replicas; completed responses are also kept in memory,
+ * so most retries are answered without touching the database. A claim is leased: if its
+ * request dies before completing or releasing it, a retry takes it over once the lease ends.
+ * A request that succeeded marks its key executed before recording the response, so a key
+ * whose recording failed is never taken over and run a second time.
+ */
+@Component
+@Slf4j
+public class IdempotencyStore {
+
+    public enum Outcome {
+        /** The caller owns the key and must complete or release it. */
+        CLAIMED,
+        /** Another request with the key has not finished yet. */
+        IN_PROGRESS,
+        /** The key was used before with a different request. */
+        MISMATCH,
+        /** The key was used before with the same request; replay its response. */
+        COMPLETED,
+        /** The key's request ran, but its response was not recorded and cannot be replayed. */
+        EXECUTED
+    }
+
+    /** The response_status of a key whose request succeeded but whose response is not recorded yet. */
+    static final int EXECUTED_STATUS = 0;
+
+    public record StoredResponse(int status, String contentType, byte[] body) {
+    }
+
+    public record Claim(Outcome outcome, StoredResponse response) {
+    }
+
+    private record Completed(String requestHash, StoredResponse response) {
+    }
+
+    private final IdempotencyKeyRepository repository;
+    private final Duration ttl;
+    private final Duration lease;
+    private final Cache<String, Completed> completed;
+
+    public IdempotencyStore(
+            IdempotencyKeyRepository repository,
+            @Value("${idempotency.ttl:PT24H}") Duration ttl,
+            @Value("${idempotency.lease:PT1M}") Duration lease,
+            @Value("${idempotency.cache.max-size:10000}") long maxCachedResponses
+    ) {
+        this.repository = repository;
+        this.ttl = ttl;
+        this.lease = lease;
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(maxCachedResponses)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public Claim claim(String key, String requestHash) {
+        Completed cached = completed.getIfPresent(key);
+        if (cached != null) {
+            return answer(cached, requestHash);
+        }
+        Date now = new Date();
+        Date lockedUntil = new Date(now.getTime() + lease.toMillis());
+        try {
+            repository.claim(key, requestHash, now, lockedUntil);
+            return new Claim(Outcome.CLAIMED, null);
+        } catch (DataIntegrityViolationException e) {
+            IdempotencyKey existing = repository.findById(key).orElse(null);
+            if (existing == null) {
+                // Released by a failed first attempt a moment ago
+                return new Claim(Outcome.IN_PROGRESS, null);
+            }
+            if (existing.getResponseStatus() == null) {
+                if (!existing.getRequestHash().equals(requestHash)) {
+                    return new Claim(Outcome.MISMATCH, null);
+                }
+                return repository.reclaim(key, requestHash, now, lockedUntil) == 1
+                        ? new Claim(Outcome.CLAIMED, null)
+                        : new Claim(Outcome.IN_PROGRESS, null);
+            }
+            if (existing.getResponseStatus() == EXECUTED_STATUS) {
+                return existing.getRequestHash().equals(requestHash)
+                        ? new Claim(Outcome.EXECUTED, null)
+                        : new Claim(Outcome.MISMATCH, null);
+            }
+            Completed stored = new Completed(existing.getRequestHash(), new StoredResponse(
+                    existing.getResponseStatus(), existing.getContentType(), existing.getResponseBody()));
+            completed.put(key, stored);
+            return answer(stored, requestHash);
+        }
+    }
+
+    public void complete(String key, String requestHash, StoredResponse response) {
+        // Cached first, so this replica still replays the response if recording it fails
+        completed.put(key, new Completed(requestHash, response));
+        repository.markExecuted(key, EXECUTED_STATUS);
+        repository.complete(key, response.status(), response.contentType(), response.body());
+    }
+
+    /** Frees a claimed key whose request failed, so the client can retry it. */
+    public void release(String key) {
+        repository.release(key);
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval:PT10M}")
+    public void purgeExpired() {
+        int deleted = repository.deleteCreatedBefore(new Date(System.currentTimeMillis() - ttl.toMillis()));
+        if (deleted > 0) {
+            log.debug("Purged {} expired idempotency keys", deleted);
+        }
+    }
+
+    private static Claim answer(Completed completed, String requestHash) {
+        return completed.requestHash().equals(requestHash)
+                ? new Claim(Outcome.COMPLETED, completed.response())
+                : new Claim(Outcome.MISMATCH, null);
+    }
+}
@@ -0,0 +1,7 @@
+package com.code.camping.ratelimit;
+
+public enum ClientClass {
+    ANONYMOUS,
+    USER,
+    ADMIN
+}
@@ -0,0 +1,233 @@
+package com.code.camping.ratelimit;
+
+import com.code.camping.entity.RateLimitBucket;
+import com.code.camping.repository.RateLimitBucketRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.ConsumptionProbe;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shares bucket state between replicas through the rate_limit_buckets table. Tokens are
+ * taken with a compare-and-swap update on the row version, a batch at a time, and handed
+ * out locally until the batch runs dry, so most requests never reach the database.
+ *
+ * Unused prefetched tokens are handed back to the row after a short time, which keeps a quiet
+ * replica from holding on to another replica's share without wasting it. The cluster can
+ * overshoot a limit by at most one batch per replica. A key the store turned away is rejected locally until its next
+ * token is due, so clients over their limit do not reach the database either.
+ */
+@Slf4j
+public class JdbcRateLimiter implements RateLimiter {
+
+    private static final int MAX_CAS_ATTEMPTS = 5;
+
+    private final RateLimitBucketRepository repository;
+    private final long prefetch;
+    private final Duration prefetchTtl;
+    private final Cache<String, LocalBatch> batches;
+
+    public JdbcRateLimiter(RateLimitBucketRepository repository, long prefetch, long maxClients, Duration prefetchTtl) {
+        this.repository = repository;
+        this.prefetch = Math.max(1, prefetch);
+        this.prefetchTtl = prefetchTtl;
+        this.batches = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfter(new Expiry<String, LocalBatch>() {
+                    @Override
+                    public long expireAfterCreate(String key, LocalBatch batch, long currentTime) {
+                        return prefetchTtl.toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, LocalBatch batch, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, LocalBatch batch, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                // Expire on time rather than on the next cache access, so idle batches are handed back promptly
+                .scheduler(Scheduler.systemScheduler())
+                .removalListener((String key, LocalBatch batch, RemovalCause cause) -> {
+                    if (cause.wasEvicted() && key != null && batch != null) {
+                        giveBack(key, batch);
+                    }
+                })
+                .build();
+    }
+
+    @Override
+    public ConsumptionProbe tryConsume(String bucketKey, Bandwidth limit) {
+        LocalBatch batch = batches.get(bucketKey, key -> new LocalBatch(limit));
+        long left = batch.take();
+        if (left >= 0) {
+            return ConsumptionProbe.consumed(left + batch.storeRemaining, 0);
+        }
+        long nanosToWait = batch.nanosToWait();
+        if (nanosToWait > 0) {
+            return ConsumptionProbe.rejected(0, nanosToWait, nanosToWait);
+        }
+        synchronized (batch) {
+            if (batch.retired) {
+                // Evicted and handed back while we waited; refill a live batch instead
+                return tryConsume(bucketKey, limit);
+            }
+            left = batch.take();
+            if (left >= 0) {
+                return ConsumptionProbe.consumed(left + batch.storeRemaining, 0);
+            }
+            nanosToWait = batch.nanosToWait();
+            if (nanosToWait > 0) {
+                return ConsumptionProbe.rejected(0, nanosToWait, nanosToWait);
+            }
+            Grant grant = takeFromStore(bucketKey, limit, Math.min(prefetch, limit.getCapacity()));
+            batch.storeRemaining = grant.remaining;
+            if (grant.tokens == 0) {
+                batch.rejectedUntil = System.nanoTime() + grant.nanosToWait;
+                // Keep the batch, and with it the rejection, for as long as the bucket stays empty
+                batches.policy().expireVariably().ifPresent(expiry -> expiry.setExpiresAfter(bucketKey,
+                        Math.max(prefetchTtl.toNanos(), grant.nanosToWait), TimeUnit.NANOSECONDS));
+                return ConsumptionProbe.rejected(grant.remaining, grant.nanosToWait, grant.nanosToWait);
+            }
+            batch.available.set(grant.tokens - 1);
+            return ConsumptionProbe.consumed(grant.tokens - 1 + grant.remaining, 0);
+        }
+    }
+
+    @Override
+    public long activeBuckets() {
+        return batches.estimatedSize();
+    }
+
+    private void giveBack(String bucketKey, LocalBatch batch) {
+        long unused;
+        synchronized (batch) {
+            batch.retired = true;
+            unused = batch.available.getAndSet(0);
+        }
+        if (unused <= 0) {
+            return;
+        }
+        try {
+            for (int attempt = 0; attempt < MAX_CAS_ATTEMPTS; attempt++) {
+                RateLimitBucket bucket = repository.findById(bucketKey).orElse(null);
+                if (bucket == null) {
+                    return;
+                }
+                Refilled refilled = refill(bucket, batch.limit, System.currentTimeMillis());
+                long tokens = Math.min(batch.limit.getCapacity(), refilled.tokens + unused);
+                if (repository.compareAndSet(bucketKey, bucket.getVersion(), tokens, refilled.refilledAt) == 1) {
+                    return;
+                }
+            }
+            log.debug("Rate limit bucket {} is too contended, dropping {} unused tokens", bucketKey, unused);
+        } catch (RuntimeException e) {
+            log.warn("Could not return {} unused tokens to rate limit bucket {}", unused, bucketKey, e);
+        }
+    }
+
+    private static Refilled refill(RateLimitBucket bucket, Bandwidth limit, long now) {
+        long periodMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(limit.getRefillPeriodNanos()));
+        long refillTokens = limit.getRefillTokens();
+        long capacity = limit.getCapacity();
+
+        long tokens = bucket.getTokens();
+        long refilledAt = bucket.getRefilledAt();
+        long refill = (now - refilledAt) * refillTokens / periodMillis;
+        if (refill > 0) {
+            tokens += refill;
+            refilledAt += refill * periodMillis / refillTokens;
+            if (tokens >= capacity) {
+                tokens = capacity;
+                refilledAt = now;
+            }
+        }
+        return new Refilled(tokens, refilledAt);
+    }
+
+    private Grant takeFromStore(String bucketKey, Bandwidth limit, long wanted) {
+        long periodMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(limit.getRefillPeriodNanos()));
+        long refillTokens = limit.getRefillTokens();
+        long capacity = limit.getCapacity();
+
+        for (int attempt = 0; attempt < MAX_CAS_ATTEMPTS; attempt++) {
+            long now = System.currentTimeMillis();
+            RateLimitBucket bucket = repository.findById(bucketKey).orElse(null);
+            if (bucket == null) {
+                long granted = Math.min(wanted, capacity);
+                try {
+                    repository.saveAndFlush(RateLimitBucket.builder()
+                            .bucketKey(bucketKey)
+                            .tokens(capacity - granted)
+                            .refilledAt(now)
+                            .build());
+                    return new Grant(granted, capacity - granted, 0);
+                } catch (DataIntegrityViolationException e) {
+                    continue; // Another replica created the row first
+                }
+            }
+
+            Refilled refilled = refill(bucket, limit, now);
+            long tokens = refilled.tokens;
+            long refilledAt = refilled.refilledAt;
+
+            long granted = Math.min(wanted, tokens);
+            if (granted == 0) {
+                long millisToNextToken = Math.max(1, periodMillis / refillTokens - (now - refilledAt));
+                return new Grant(0, 0, TimeUnit.MILLISECONDS.toNanos(millisToNextToken));
+            }
+            if (repository.compareAndSet(bucketKey, bucket.getVersion(), tokens - granted, refilledAt) == 1) {
+                return new Grant(granted, tokens - granted, 0);
+            }
+        }
+        log.warn("Rate limit bucket {} is too contended, rejecting request", bucketKey);
+        return new Grant(0, 0, TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    private record Grant(long tokens, long remaining, long nanosToWait) {
+    }
+
+    private record Refilled(long tokens, long refilledAt) {
+    }
+
+    private static class LocalBatch {
+        private final Bandwidth limit;
+        private final AtomicLong available = new AtomicLong();
+        private volatile long storeRemaining;
+        private volatile long rejectedUntil = System.nanoTime();
+        private volatile boolean retired;
+
+        LocalBatch(Bandwidth limit) {
+            this.limit = limit;
+        }
+
+        /** Returns the tokens left after taking one, or -1 when the batch is empty. */
+        long take() {
+            long current;
+            do {
+                current = available.get();
+                if (current <= 0) {
+                    return -1;
+                }
+            } while (!available.compareAndSet(current, current - 1));
+            return current - 1;
+        }
+
+        /** Returns how long the store is known to stay empty, or 0 when it may have tokens again. */
+        long nanosToWait() {
+            return Math.max(0, rejectedUntil - System.nanoTime());
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.code.camping.ratelimit;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.ConsumptionProbe;
+
+/**
+ * Keeps the buckets in this JVM. Each replica enforces the limits on its own.
+ */
+public class LocalRateLimiter implements RateLimiter {
+
+    private final RateLimitBucketRegistry registry;
+
+    public LocalRateLimiter(RateLimitBucketRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public ConsumptionProbe tryConsume(String bucketKey, Bandwidth limit) {
+        return registry.resolve(bucketKey, limit).tryConsumeAndReturnRemaining(1);
+    }
+
+    @Override
+    public long activeBuckets() {
+        return registry.activeBuckets();
+    }
+}
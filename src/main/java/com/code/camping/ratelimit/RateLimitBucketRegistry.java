@@ -0,0 +1,33 @@
+package com.code.camping.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+
+import java.time.Duration;
+
+/**
+ * Holds one token bucket per client key. The registry is size-bounded and drops buckets
+ * that have been idle for a while, so memory stays flat however many clients show up.
+ * An evicted client simply starts again with a full bucket.
+ */
+public class RateLimitBucketRegistry {
+
+    private final Cache<String, Bucket> buckets;
+
+    public RateLimitBucketRegistry(long maxClients, Duration idleTimeout) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(idleTimeout)
+                .build();
+    }
+
+    public Bucket resolve(String bucketKey, Bandwidth limit) {
+        return buckets.get(bucketKey, key -> Bucket.builder().addLimit(limit).build());
+    }
+
+    public long activeBuckets() {
+        return buckets.estimatedSize();
+    }
+}
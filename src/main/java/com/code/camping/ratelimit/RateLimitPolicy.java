@@ -0,0 +1,30 @@
+package com.code.camping.ratelimit;
+
+import io.github.bucket4j.Bandwidth;
+
+import java.util.Map;
+
+/**
+ * Limits per route group. Login and register are always limited per IP; the other groups
+ * use their own limit when one is configured and otherwise fall back to the limit for the
+ * caller's client class.
+ */
+public class RateLimitPolicy {
+
+    private final Map<RouteGroup, Bandwidth> routeLimits;
+    private final Map<ClientClass, Bandwidth> clientLimits;
+
+    public RateLimitPolicy(Map<RouteGroup, Bandwidth> routeLimits, Map<ClientClass, Bandwidth> clientLimits) {
+        this.routeLimits = routeLimits;
+        this.clientLimits = clientLimits;
+    }
+
+    public boolean isPerIp(RouteGroup routeGroup) {
+        return routeGroup == RouteGroup.LOGIN;
+    }
+
+    public Bandwidth limitFor(RouteGroup routeGroup, ClientClass clientClass) {
+        Bandwidth routeLimit = routeLimits.get(routeGroup);
+        return routeLimit != null ? routeLimit : clientLimits.get(clientClass);
+    }
+}
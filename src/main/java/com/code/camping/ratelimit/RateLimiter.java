@@ -0,0 +1,16 @@
+package com.code.camping.ratelimit;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.ConsumptionProbe;
+
+/**
+ * Takes one token from the bucket identified by the key, creating it with the given limit
+ * on first use.
+ */
+public interface RateLimiter {
+
+    ConsumptionProbe tryConsume(String bucketKey, Bandwidth limit);
+
+    /** Number of buckets currently held in memory by this replica. */
+    long activeBuckets();
+}
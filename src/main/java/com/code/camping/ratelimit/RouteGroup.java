@@ -0,0 +1,29 @@
+package com.code.camping.ratelimit;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Groups of endpoints that share a rate-limit policy.
+ */
+public enum RouteGroup {
+    LOGIN,
+    BROWSING,
+    BOOKING,
+    DEFAULT;
+
+    public static RouteGroup of(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        String method = request.getMethod();
+        if (path.startsWith("/api/v1/auth/login/") || path.startsWith("/api/v1/auth/register/")
+                || path.equals("/admins/login") || path.equals("/admins/register")) {
+            return LOGIN;
+        }
+        if ("POST".equals(method) && path.startsWith("/transaction")) {
+            return BOOKING;
+        }
+        if ("GET".equals(method) && (path.startsWith("/products") || path.startsWith("/weather"))) {
+            return BROWSING;
+        }
+        return DEFAULT;
+    }
+}
@@ -0,0 +1,12 @@
+package com.code.camping.repository;
+
+/**
+ * Login-relevant columns of either a user or an admin, as returned by the
+ * single account lookup query.
+ */
+public interface AccountCredentials {
+    String getId();
+    String getEmail();
+    String getPassword();
+    String getRole();
+}
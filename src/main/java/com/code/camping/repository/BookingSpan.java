@@ -0,0 +1,13 @@
+package com.code.camping.repository;
+
+import java.util.Date;
+
+/**
+ * The columns of a transaction that decide which days of a product it occupies.
+ */
+public interface BookingSpan {
+    String getProductId();
+    Date getDateStart();
+    Date getDateEnd();
+    Integer getQuantity();
+}
@@ -0,0 +1,61 @@
+package com.code.camping.repository;
+
+import com.code.camping.entity.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, String> {
+
+    // A plain insert, unlike save(), so a duplicate key fails on the primary key instead of merging
+    @Modifying
+    @Transactional
+    @Query("INSERT INTO IdempotencyKey (id, requestHash, createdAt, lockedUntil) " +
+            "VALUES (:id, :requestHash, :createdAt, :lockedUntil)")
+    int claim(@Param("id") String id,
+              @Param("requestHash") String requestHash,
+              @Param("createdAt") Date createdAt,
+              @Param("lockedUntil") Date lockedUntil);
+
+    // Takes over an unfinished claim whose lease has run out; only one caller can match
+    @Modifying
+    @Transactional
+    @Query("UPDATE IdempotencyKey k SET k.lockedUntil = :lockedUntil " +
+            "WHERE k.id = :id AND k.requestHash = :requestHash AND k.responseStatus IS NULL " +
+            "AND (k.lockedUntil IS NULL OR k.lockedUntil <= :now)")
+    int reclaim(@Param("id") String id,
+                @Param("requestHash") String requestHash,
+                @Param("now") Date now,
+                @Param("lockedUntil") Date lockedUntil);
+
+    // Committed before the response is recorded, so a lost recording never reopens the key
+    @Modifying
+    @Transactional
+    @Query("UPDATE IdempotencyKey k SET k.responseStatus = :status WHERE k.id = :id AND k.responseStatus IS NULL")
+    int markExecuted(@Param("id") String id, @Param("status") int status);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE IdempotencyKey k SET k.responseStatus = :status, k.contentType = :contentType, k.responseBody = :body " +
+            "WHERE k.id = :id")
+    int complete(@Param("id") String id,
+                 @Param("status") int status,
+                 @Param("contentType") String contentType,
+                 @Param("body") byte[] body);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyKey k WHERE k.id = :id AND k.responseStatus IS NULL")
+    int release(@Param("id") String id);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyKey k WHERE k.createdAt <= :before")
+    int deleteCreatedBefore(@Param("before") Date before);
+}
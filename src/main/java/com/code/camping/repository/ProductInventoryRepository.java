@@ -0,0 +1,48 @@
+package com.code.camping.repository;
+
+import com.code.camping.entity.ProductInventory;
+import com.code.camping.entity.ProductInventoryId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ProductInventoryRepository extends JpaRepository<ProductInventory, ProductInventoryId> {
+
+    @Query("SELECT i.day FROM ProductInventory i WHERE i.productId = :productId AND i.day BETWEEN :from AND :to")
+    List<LocalDate> findDays(@Param("productId") String productId,
+                             @Param("from") LocalDate from,
+                             @Param("to") LocalDate to);
+
+    // Only days with room are updated; the caller compares the count with the days it asked for
+    @Modifying
+    @Query("UPDATE ProductInventory i SET i.reserved = i.reserved + :quantity " +
+            "WHERE i.productId = :productId AND i.day BETWEEN :from AND :to AND i.reserved + :quantity <= i.capacity")
+    int reserve(@Param("productId") String productId,
+                @Param("from") LocalDate from,
+                @Param("to") LocalDate to,
+                @Param("quantity") int quantity);
+
+    @Modifying
+    @Query("UPDATE ProductInventory i SET i.reserved = i.reserved - :quantity " +
+            "WHERE i.productId = :productId AND i.day BETWEEN :from AND :to AND i.reserved >= :quantity")
+    int release(@Param("productId") String productId,
+                @Param("from") LocalDate from,
+                @Param("to") LocalDate to,
+                @Param("quantity") int quantity);
+
+    @Modifying
+    @Query("UPDATE ProductInventory i SET i.capacity = :capacity WHERE i.productId = :productId AND i.day >= :from")
+    int updateCapacity(@Param("productId") String productId,
+                       @Param("from") LocalDate from,
+                       @Param("capacity") int capacity);
+
+    @Modifying
+    @Query("DELETE FROM ProductInventory i WHERE i.productId = :productId")
+    int deleteByProductId(@Param("productId") String productId);
+}
@@ -0,0 +1,22 @@
+package com.code.camping.repository;
+
+import com.code.camping.entity.RateLimitBucket;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface RateLimitBucketRepository extends JpaRepository<RateLimitBucket, String> {
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE RateLimitBucket b SET b.tokens = :tokens, b.refilledAt = :refilledAt, b.version = b.version + 1 " +
+            "WHERE b.bucketKey = :bucketKey AND b.version = :version")
+    int compareAndSet(@Param("bucketKey") String bucketKey,
+                      @Param("version") Long version,
+                      @Param("tokens") long tokens,
+                      @Param("refilledAt") long refilledAt);
+}
@@ -1,15 +1,49 @@
 package com.code.camping.repository;
 
 import com.code.camping.entity.Transaction;
+import com.code.camping.utils.dto.response.TransactionHistoryResponse;
 
+import java.util.Date;
 import java.util.List;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, String>, JpaSpecificationExecutor<Transaction> {
     List<Transaction> findByUserId(String userId);
-    
+
+    // A single join into the DTO; the user and product entities are never loaded
+    @Query(value = "SELECT new com.code.camping.utils.dto.response.TransactionHistoryResponse(" +
+            "t.id, t.quantity, t.price_history, t.dateStart, t.dateEnd, t.duration, t.total, p.id, p.name, p.price) " +
+            "FROM Transaction t JOIN t.product p " +
+            "WHERE t.user.id = :userId AND (:from IS NULL OR t.dateStart >= :from) AND (:to IS NULL OR t.dateStart < :to)",
+            countQuery = "SELECT COUNT(t) FROM Transaction t " +
+                    "WHERE t.user.id = :userId AND (:from IS NULL OR t.dateStart >= :from) AND (:to IS NULL OR t.dateStart < :to)")
+    Page<TransactionHistoryResponse> findHistory(@Param("userId") String userId,
+                                                 @Param("from") Date from,
+                                                 @Param("to") Date to,
+                                                 Pageable pageable);
+
+    @Query("SELECT t.product.id AS productId, t.dateStart AS dateStart, t.dateEnd AS dateEnd, t.quantity AS quantity " +
+            "FROM Transaction t WHERE t.dateStart IS NOT NULL AND t.dateEnd >= :from")
+    List<BookingSpan> findBookingsEndingFrom(@Param("from") Date from);
+
+    @Query("SELECT t.product.id AS productId, t.dateStart AS dateStart, t.dateEnd AS dateEnd, t.quantity AS quantity " +
+            "FROM Transaction t WHERE t.user.id = :userId AND t.dateStart IS NOT NULL AND t.dateEnd >= :from")
+    List<BookingSpan> findUserBookingsEndingFrom(@Param("userId") String userId, @Param("from") Date from);
+
+    @Modifying
+    @Query("DELETE FROM Transaction t WHERE t.product.id = :productId")
+    int deleteByProductId(@Param("productId") String productId);
+
+    @Modifying
+    @Query("DELETE FROM Transaction t WHERE t.user.id = :userId")
+    int deleteByUserId(@Param("userId") String userId);
 }
@@ -3,9 +3,24 @@ package com.code.camping.repository;
 import com.code.camping.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, String>, JpaSpecificationExecutor<User> {
     User findByEmail(String email);
+
+    @Query(value = "SELECT id, email, password, role FROM ("
+            + "SELECT u.id AS id, u.email AS email, u.password AS password, 'USER' AS role FROM users u WHERE u.email = :email "
+            + "UNION ALL "
+            + "SELECT a.id AS id, a.email AS email, a.password AS password, 'ADMIN' AS role FROM admins a WHERE a.email = :email"
+            + ") accounts ORDER BY role DESC LIMIT 1", nativeQuery = true)
+    AccountCredentials findAccountByEmail(@Param("email") String email);
+
+    // Unlike deleteById, does not load the user and cascade through its wallets
+    @Modifying
+    @Query("DELETE FROM User u WHERE u.id = :id")
+    int deleteUserById(@Param("id") String id);
 }
@@ -4,6 +4,9 @@ import com.code.camping.entity.User;
 import com.code.camping.entity.Wallet;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 
@@ -13,4 +16,17 @@ public interface WalletRepository extends JpaRepository<Wallet, String>, JpaSpec
 
   Wallet findByUserId(String userId);
 
+  // Matches no row when the balance would go negative, so concurrent debits never overdraw
+  @Modifying
+  @Query("UPDATE Wallet w SET w.balance = w.balance - :amount WHERE w.user.id = :userId AND w.balance >= :amount")
+  int debit(@Param("userId") String userId, @Param("amount") int amount);
+
+  @Modifying
+  @Query("UPDATE Wallet w SET w.balance = w.balance + :amount WHERE w.user.id = :userId")
+  int credit(@Param("userId") String userId, @Param("amount") int amount);
+
+  @Modifying
+  @Query("DELETE FROM Wallet w WHERE w.user.id = :userId")
+  int deleteByUserId(@Param("userId") String userId);
+
 }
\ No newline at end of file
@@ -0,0 +1,69 @@
+package com.code.camping.security;
+
+import com.code.camping.repository.AccountCredentials;
+import com.code.camping.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * Size-bounded, TTL-evicting cache of accounts by email, loaded with one query across
+ * users and admins. Misses are not cached, so newly registered accounts are found at once.
+ */
+@Component
+@Slf4j
+public class AccountCache {
+
+    private final UserRepository userRepository;
+    private final Cache<String, AccountPrincipal> accounts;
+
+    public AccountCache(
+            UserRepository userRepository,
+            @Value("${account.cache.max-size:10000}") long maxSize,
+            @Value("${account.cache.ttl:5m}") Duration ttl
+    ) {
+        this.userRepository = userRepository;
+        this.accounts = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public AccountPrincipal findByEmail(String email) {
+        return accounts.get(email, this::load);
+    }
+
+    /**
+     * Drops the cached account now and again once the surrounding transaction commits,
+     * so a lookup racing with the update cannot re-cache the old row.
+     */
+    public void evict(String email) {
+        if (email == null) {
+            return;
+        }
+        accounts.invalidate(email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    accounts.invalidate(email);
+                }
+            });
+        }
+    }
+
+    private AccountPrincipal load(String email) {
+        log.debug("Loading account by email: {}", email);
+        AccountCredentials account = userRepository.findAccountByEmail(email);
+        if (account == null) {
+            return null;
+        }
+        return new AccountPrincipal(account.getId(), account.getEmail(), account.getPassword(), account.getRole());
+    }
+}
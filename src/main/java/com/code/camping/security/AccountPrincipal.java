@@ -0,0 +1,51 @@
+package com.code.camping.security;
+
+import io.jsonwebtoken.Claims;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.Collections;
+
+@Getter
+@AllArgsConstructor
+public class AccountPrincipal implements UserDetails {
+
+    public static final String CLAIM_ID = "id";
+    public static final String CLAIM_ROLE = "role";
+
+    private final String id;
+    private final String email;
+    private final String password;
+    private final String role;
+
+    /**
+     * Builds the principal from verified token claims, or returns null when the token
+     * predates the id and role claims.
+     */
+    public static AccountPrincipal fromClaims(Claims claims) {
+        String id = claims.get(CLAIM_ID, String.class);
+        String role = claims.get(CLAIM_ROLE, String.class);
+        if (id == null || role == null) {
+            return null;
+        }
+        return new AccountPrincipal(id, claims.getSubject(), null, role);
+    }
+
+    public boolean isAdmin() {
+        return "ADMIN".equals(role);
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role));
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+}
@@ -0,0 +1,57 @@
+package com.code.camping.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+import java.time.Duration;
+
+/**
+ * Picks the highest BCrypt cost whose hash time on this machine stays within a target.
+ * Each extra cost step doubles the work, so the search stops as soon as the next step
+ * would overshoot.
+ */
+@Slf4j
+public final class BcryptCostCalibrator {
+
+    private static final String SAMPLE_PASSWORD = "calibration-sample-password";
+
+    private BcryptCostCalibrator() {
+    }
+
+    public static int calibrate(Duration targetLatency, int minCost, int maxCost) {
+        long targetNanos = targetLatency.toNanos();
+        measure(minCost);
+
+        int cost = minCost;
+        long elapsed = measure(cost);
+        while (cost < maxCost && elapsed * 2 <= targetNanos) {
+            cost++;
+            elapsed = measure(cost);
+        }
+        log.info("Calibrated BCrypt cost {} ({} ms per hash, target {} ms)",
+                cost, Duration.ofNanos(elapsed).toMillis(), targetLatency.toMillis());
+        return cost;
+    }
+
+    /**
+     * Reads the cost factor from an encoded BCrypt hash such as {@code $2a$10$...},
+     * or returns -1 when the value is not a BCrypt hash.
+     */
+    public static int costOf(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.length() < 7 || !encodedPassword.startsWith("$2")
+                || encodedPassword.charAt(3) != '$' || encodedPassword.charAt(6) != '$') {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(encodedPassword.substring(4, 6));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static long measure(int cost) {
+        long start = System.nanoTime();
+        BCrypt.hashpw(SAMPLE_PASSWORD, BCrypt.gensalt(cost));
+        return System.nanoTime() - start;
+    }
+}
@@ -1,51 +1,28 @@
 package com.code.camping.security;
 
-import com.code.camping.entity.Admin;
-import com.code.camping.entity.User;
-import com.code.camping.repository.AdminRepository;
-import com.code.camping.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import java.util.Collections;
-
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class CustomUserDetailsService implements UserDetailsService {
 
-    private final UserRepository userRepository;
-    private final AdminRepository adminRepository;
+    private final AccountCache accountCache;
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
         log.debug("Loading user by email: {}", email);
-        
-        // Try to find user first
-        User user = userRepository.findByEmail(email);
-        if (user != null) {
-            return org.springframework.security.core.userdetails.User.builder()
-                    .username(user.getEmail())
-                    .password(user.getPassword())
-                    .authorities(Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER")))
-                    .build();
-        }
-        
-        // Try to find admin
-        Admin admin = adminRepository.findByEmail(email);
-        if (admin != null) {
-            return org.springframework.security.core.userdetails.User.builder()
-                    .username(admin.getEmail())
-                    .password(admin.getPassword())
-                    .authorities(Collections.singletonList(new SimpleGrantedAuthority("ROLE_ADMIN")))
-                    .build();
+
+        AccountPrincipal account = accountCache.findByEmail(email);
+        if (account != null) {
+            return account;
         }
         
         throw new UsernameNotFoundException("User not found with email: " + email);
     }
-} 
\ No newline at end of file
+}
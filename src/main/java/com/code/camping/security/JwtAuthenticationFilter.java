@@ -1,5 +1,6 @@
 package com.code.camping.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -23,6 +24,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtils jwtUtils;
     private final UserDetailsService userDetailsService;
+    private final TokenRevocationList tokenRevocationList;
 
     @Override
     protected void doFilterInternal(
@@ -33,6 +35,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             final String authHeader = request.getHeader("Authorization");
             final String jwt;
+            final Claims claims;
             final String userEmail;
 
             if (authHeader == null || !authHeader.startsWith("Bearer ")) {
@@ -41,12 +44,25 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             }
 
             jwt = authHeader.substring(7);
-            userEmail = jwtUtils.extractUsername(jwt);
+            claims = jwtUtils.decodeAccessToken(jwt);
+            userEmail = claims.getSubject();
+
+            if (tokenRevocationList.isRevoked(claims.getId())) {
+                log.debug("Rejected revoked token {}", claims.getId());
+                filterChain.doFilter(request, response);
+                return;
+            }
 
             if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+                UserDetails userDetails = null;
+                if (jwtUtils.isClaimsOnlyAuthentication()) {
+                    userDetails = AccountPrincipal.fromClaims(claims);
+                }
+                if (userDetails == null) {
+                    userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+                }
                 
-                if (jwtUtils.isTokenValid(jwt, userDetails)) {
+                if (jwtUtils.isTokenValid(claims, userDetails)) {
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                             userDetails,
                             null,
@@ -4,7 +4,7 @@ import com.code.camping.entity.Admin;
 import com.code.camping.entity.User;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -14,20 +14,27 @@ import javax.crypto.SecretKey;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Component
+@RequiredArgsConstructor
 @Slf4j
 public class JwtUtils {
-    
-    @Value("${jwt.secret:java-incubation-25-final-project-team-2}")
-    private String jwtSignatureSecret;
+
+    private final TokenVerifier tokenVerifier;
     
     @Value("${jwt.expiration:86400000}")
     private int jwtExpirationInMs;
 
+    @Value("${jwt.claims-only.enabled:false}")
+    private boolean claimsOnlyAuthentication;
+
+    @Value("${jwt.claims-only.expiration:900000}")
+    private int claimsOnlyExpirationInMs;
+
     public SecretKey getSigningKey(){
-        return Keys.hmacShaKeyFor(jwtSignatureSecret.getBytes());
+        return tokenVerifier.getSigningKey();
     }
 
     public String extractUsername(String token) {
@@ -44,12 +51,11 @@ public class JwtUtils {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parser().verifyWith(getSigningKey())
-                .build().parseSignedClaims(token).getPayload();
+        return tokenVerifier.verify(token);
     }
 
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    private Boolean isTokenExpired(Claims claims) {
+        return claims.getExpiration().before(new Date());
     }
 
     public String generateToken(UserDetails userDetails) {
@@ -59,21 +65,33 @@ public class JwtUtils {
 
     public String generateAccessToken(User user) {
         Map<String, Object> claims = new HashMap<>();
-        claims.put("role", "USER");
+        claims.put(AccountPrincipal.CLAIM_ID, user.getId());
+        claims.put(AccountPrincipal.CLAIM_ROLE, "USER");
         return createToken(claims, user.getEmail());
     }
 
     public String generateAccessTokenForAdmin(Admin admin){
         Map<String, Object> claims = new HashMap<>();
-        claims.put("role", "ADMIN");
+        claims.put(AccountPrincipal.CLAIM_ID, admin.getId());
+        claims.put(AccountPrincipal.CLAIM_ROLE, "ADMIN");
         return createToken(claims, admin.getEmail());
     }
 
+    /**
+     * When enabled, the authentication filter trusts the signed id and role claims instead of
+     * looking the account up, so tokens are issued with the shorter claims-only lifetime.
+     */
+    public boolean isClaimsOnlyAuthentication() {
+        return claimsOnlyAuthentication;
+    }
+
     private String createToken(Map<String, Object> claims, String subject) {
         Date currentDate = new Date();
-        Date expirationDate = new Date(currentDate.getTime() + jwtExpirationInMs);
+        int expirationInMs = claimsOnlyAuthentication ? claimsOnlyExpirationInMs : jwtExpirationInMs;
+        Date expirationDate = new Date(currentDate.getTime() + expirationInMs);
         
         return Jwts.builder()
+                .id(UUID.randomUUID().toString())
                 .claims(claims)
                 .subject(subject)
                 .issuedAt(currentDate)
@@ -83,12 +101,15 @@ public class JwtUtils {
     }
 
     public Boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return isTokenValid(extractAllClaims(token), userDetails);
+    }
+
+    public Boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        final String username = claims.getSubject();
+        return (username.equals(userDetails.getUsername()) && !isTokenExpired(claims));
     }
 
     public Claims decodeAccessToken(String accessToken){
-        return Jwts.parser().verifyWith(getSigningKey())
-                .build().parseSignedClaims(accessToken).getPayload();
+        return tokenVerifier.verify(accessToken);
     }
 }
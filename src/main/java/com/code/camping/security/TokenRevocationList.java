@@ -0,0 +1,118 @@
+package com.code.camping.security;
+
+import com.code.camping.entity.RevokedToken;
+import com.code.camping.repository.RevokedTokenRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory list of revoked token ids ({@code jti}). A Bloom filter answers the common
+ * "not revoked" case with a few hash probes; only probable hits consult the exact map.
+ * Revocations are persisted so the list survives restarts, and entries are dropped once
+ * the token would have expired anyway. Each replica reloads the revocations made since its
+ * last reload on a schedule, so a token revoked on one replica stops working on all of them.
+ */
+@Component
+@Slf4j
+public class TokenRevocationList {
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    // Reloads look back this far past the previous one, to tolerate clock skew between replicas
+    private static final long RELOAD_OVERLAP_MS = 60_000;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final long expectedEntries;
+    private final long maxTokenLifetimeMs;
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private volatile BloomFilter bloomFilter;
+    private volatile long lastReload;
+
+    public TokenRevocationList(
+            RevokedTokenRepository revokedTokenRepository,
+            @Value("${jwt.revocation.expected-entries:100000}") long expectedEntries,
+            @Value("${jwt.expiration:86400000}") long maxTokenLifetimeMs
+    ) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.expectedEntries = expectedEntries;
+        this.maxTokenLifetimeMs = maxTokenLifetimeMs;
+        this.bloomFilter = new BloomFilter(expectedEntries, FALSE_POSITIVE_RATE);
+    }
+
+    @PostConstruct
+    public void load() {
+        lastReload = System.currentTimeMillis();
+        for (RevokedToken token : revokedTokenRepository.findByExpiresAtAfter(new Date(lastReload))) {
+            revoked.put(token.getJti(), token.getExpiresAt().getTime());
+        }
+        rebuildBloomFilter();
+        log.info("Loaded {} revoked tokens", revoked.size());
+    }
+
+    public boolean isRevoked(String jti) {
+        if (jti == null || !bloomFilter.mightContain(jti)) {
+            return false;
+        }
+        Long expiresAt = revoked.get(jti);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    public synchronized void revoke(String jti, Date expiresAt) {
+        revokedTokenRepository.save(RevokedToken.builder().jti(jti).expiresAt(expiresAt).revokedAt(new Date()).build());
+        revoked.put(jti, expiresAt.getTime());
+        bloomFilter.put(jti);
+        log.info("Revoked token {} until {}", jti, expiresAt);
+    }
+
+    /**
+     * Revokes a token whose expiry is unknown by keeping it for the longest lifetime
+     * a token can be issued with.
+     */
+    public void revoke(String jti) {
+        revoke(jti, new Date(System.currentTimeMillis() + maxTokenLifetimeMs));
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.reload-interval:PT30S}",
+            initialDelayString = "${jwt.revocation.reload-interval:PT30S}")
+    public void reload() {
+        long now = System.currentTimeMillis();
+        List<RevokedToken> tokens = revokedTokenRepository.findByRevokedAtAfterAndExpiresAtAfter(
+                new Date(lastReload - RELOAD_OVERLAP_MS), new Date(now));
+        synchronized (this) {
+            for (RevokedToken token : tokens) {
+                revoked.put(token.getJti(), token.getExpiresAt().getTime());
+                bloomFilter.put(token.getJti());
+            }
+        }
+        lastReload = now;
+        if (!tokens.isEmpty()) {
+            log.debug("Reloaded {} recently revoked tokens", tokens.size());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.purge-interval:PT10M}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        if (revoked.values().removeIf(expiresAt -> expiresAt <= now)) {
+            rebuildBloomFilter();
+        }
+        int deleted = revokedTokenRepository.deleteExpired(new Date(now));
+        if (deleted > 0) {
+            log.debug("Purged {} expired revoked tokens", deleted);
+        }
+    }
+
+    // synchronized with revoke() so a revocation cannot land in a filter that is being replaced
+    private synchronized void rebuildBloomFilter() {
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedEntries, revoked.size() * 2L), FALSE_POSITIVE_RATE);
+        revoked.keySet().forEach(rebuilt::put);
+        bloomFilter = rebuilt;
+    }
+}
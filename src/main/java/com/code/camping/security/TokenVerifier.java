@@ -0,0 +1,109 @@
+package com.code.camping.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Verifies access tokens with a single prebuilt parser and remembers the verified claims,
+ * keyed by a SHA-256 digest of the token, until the token itself expires.
+ */
+@Component
+@Slf4j
+public class TokenVerifier {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+    private final Cache<String, Claims> verifiedClaims;
+
+    public TokenVerifier(
+            @Value("${jwt.secret:java-incubation-25-final-project-team-2}") String jwtSignatureSecret,
+            @Value("${jwt.cache.max-size:10000}") long maxCachedTokens
+    ) {
+        this.signingKey = Keys.hmacShaKeyFor(jwtSignatureSecret.getBytes());
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
+        this.verifiedClaims = Caffeine.newBuilder()
+                .maximumSize(maxCachedTokens)
+                .expireAfter(new UntilTokenExpires())
+                .build();
+    }
+
+    public SecretKey getSigningKey() {
+        return signingKey;
+    }
+
+    /**
+     * Returns the verified claims of the token, checking the signature only on the first call
+     * for a given token. Accepts the raw token or a full "Bearer ..." header value.
+     */
+    public Claims verify(String token) {
+        String jwt = stripBearerPrefix(token);
+        String digest = digest(jwt);
+        Claims claims = verifiedClaims.getIfPresent(digest);
+        if (claims == null) {
+            claims = parser.parseSignedClaims(jwt).getPayload();
+            verifiedClaims.put(digest, claims);
+        }
+        return claims;
+    }
+
+    /**
+     * Returns the claims of a token that was already verified and is still cached, without
+     * doing any signature work, or null when the token has not been seen yet.
+     */
+    public Claims peek(String token) {
+        return verifiedClaims.getIfPresent(digest(stripBearerPrefix(token)));
+    }
+
+    private static String stripBearerPrefix(String token) {
+        return token.startsWith(BEARER_PREFIX) ? token.substring(BEARER_PREFIX.length()) : token;
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static class UntilTokenExpires implements Expiry<String, Claims> {
+
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            Date expiration = claims.getExpiration();
+            if (expiration == null) {
+                return 0;
+            }
+            long remainingMillis = expiration.getTime() - System.currentTimeMillis();
+            return Math.max(0, remainingMillis) * 1_000_000;
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.code.camping.service;
+
+import com.code.camping.entity.Product;
+import com.code.camping.repository.BookingSpan;
+
+import java.util.Date;
+import java.util.List;
+
+public interface InventoryService {
+    void reserve(Product product, Date dateStart, Date dateEnd, int quantity);
+    void release(Product product, Date dateStart, Date dateEnd, int quantity);
+    void releaseAll(List<BookingSpan> bookings);
+    void updateCapacity(Product product);
+    void deleteByProductId(String productId);
+}
@@ -0,0 +1,11 @@
+package com.code.camping.service;
+
+import com.code.camping.utils.dto.response.ImportReport;
+
+import java.io.IOException;
+import java.io.Reader;
+
+public interface ProductImportService {
+    ImportReport importCsv(Reader reader) throws IOException;
+    ImportReport importNdjson(Reader reader) throws IOException;
+}
@@ -2,13 +2,23 @@ package com.code.camping.service;
 
 import com.code.camping.entity.Product;
 import com.code.camping.utils.dto.request.ProductRequest;
+import com.code.camping.utils.dto.webResponse.CursorPageResponse;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
 public interface ProductService {
     Product create(ProductRequest request);
     Page<Product> getAll(Pageable pageable, ProductRequest request);
+    CursorPageResponse<Product> getAllAfter(String after, Pageable pageable, ProductRequest request);
     Product getById(String id);
+    Map<String, Product> getAllById(Collection<String> ids);
     Product update(Product request);
     void delete(String id);
+    List<Product> getAvailable(LocalDate from, LocalDate to, int quantity);
+    String getListingEtag(String query);
 }
@@ -2,7 +2,10 @@ package com.code.camping.service;
 
 import com.code.camping.entity.Transaction;
 import com.code.camping.utils.dto.request.TransactionRequest;
+import com.code.camping.utils.dto.response.TransactionHistoryResponse;
+import com.code.camping.utils.dto.webResponse.CursorPageResponse;
 
+import java.time.LocalDate;
 import java.util.List;
 
 import org.springframework.data.domain.Page;
@@ -10,10 +13,14 @@ import org.springframework.data.domain.Pageable;
 
 public interface TransactionService {
     Transaction create(TransactionRequest request, String id);
+    List<Transaction> checkout(List<TransactionRequest> items, String id);
     Page<Transaction> getAll(Pageable pageable, TransactionRequest request);
+    CursorPageResponse<Transaction> getAllAfter(String after, Pageable pageable, TransactionRequest request);
     Transaction getById(String id);
     Transaction update(TransactionRequest request,String id);
     void delete(String id);
+    void deleteByUserId(String userId);
     List<Transaction> findByUserId(String userId);
+    Page<TransactionHistoryResponse> getHistory(String userId, LocalDate from, LocalDate to, Pageable pageable);
 
 }
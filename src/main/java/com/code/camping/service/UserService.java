@@ -4,6 +4,7 @@ import com.code.camping.entity.User;
 import com.code.camping.utils.dto.request.LoginUserRequest;
 import com.code.camping.utils.dto.request.RegisterUserRequest;
 import com.code.camping.utils.dto.response.LoginUserResponse;
+import com.code.camping.utils.dto.webResponse.CursorPageResponse;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -12,6 +13,7 @@ public interface UserService {
     LoginUserResponse login(LoginUserRequest request);
     User getById(String id);
     Page<User> getAll(Pageable pageable,RegisterUserRequest registerUserRequest);
+    CursorPageResponse<User> getAllAfter(String after, Pageable pageable, RegisterUserRequest registerUserRequest);
     User update(RegisterUserRequest request);
     void delete(String id);
 }
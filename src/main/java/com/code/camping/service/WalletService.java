@@ -2,14 +2,18 @@ package com.code.camping.service;
 
 import com.code.camping.entity.Wallet;
 import com.code.camping.utils.dto.request.WalletRequest;
+import com.code.camping.utils.dto.webResponse.CursorPageResponse;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 public interface WalletService {
     Wallet create(WalletRequest request);
     Page<Wallet> getAll(Pageable pageable, WalletRequest request);
+    CursorPageResponse<Wallet> getAllAfter(String after, Pageable pageable, WalletRequest request);
     Wallet getById(String id);
     Wallet update(WalletRequest request);
     void delete(String id);
     Wallet fineByUserId(String userId);
+    void debit(String userId, int amount);
+    void credit(String userId, int amount);
 }
@@ -1,7 +1,9 @@
 package com.code.camping.service.impl;
 
 import com.code.camping.entity.Admin;
+import com.code.camping.exception.ServiceUnavailableException;
 import com.code.camping.repository.AdminRepository;
+import com.code.camping.security.AccountCache;
 import com.code.camping.security.JwtUtils;
 import com.code.camping.service.AdminService;
 import com.code.camping.utils.GeneralSpecification;
@@ -9,24 +11,28 @@ import com.code.camping.utils.dto.request.LoginAdminRequest;
 import com.code.camping.utils.dto.request.RegisterAdminRequest;
 import com.code.camping.utils.dto.response.LoginAdminResponse;
 import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpServerErrorException;
 
 @Service
 @AllArgsConstructor
+@Slf4j
 public class AdminServiceImpl implements AdminService {
 	private final AdminRepository adminRepository;
 	private JwtUtils jwtUtils;
+	private final AccountCache accountCache;
+	private final PasswordEncoder passwordEncoder;
 
 	@Override
 	public Admin create(RegisterAdminRequest request) {
 		Admin admin = RegisterAdminRequest.fromRegisterToAdminMapper(request);
-		String hashedPassword = new BCryptPasswordEncoder().encode(request.getPassword());
+		String hashedPassword = passwordEncoder.encode(request.getPassword());
 		admin.setPassword(hashedPassword);
 		return adminRepository.saveAndFlush(admin);
 	}
@@ -38,18 +44,34 @@ public class AdminServiceImpl implements AdminService {
 		try {
 			Admin admin = adminRepository.findByEmail(request.getEmail());
 			if (admin.getEmail() != null){
-				Boolean isPasswordMatchAdmin = new BCryptPasswordEncoder().matches(request.getPassword(), admin.getPassword());
-				if (new BCryptPasswordEncoder().matches(request.getPassword(), admin.getPassword())){
+				if (passwordEncoder.matches(request.getPassword(), admin.getPassword())){
+					upgradePasswordHash(admin, request.getPassword());
 					String accessTokenForAdmin = jwtUtils.generateAccessTokenForAdmin(admin);
 					loginAdminResponse.setAccessToken(accessTokenForAdmin);
 				}
 			}
 			return loginAdminResponse;
+		} catch (ServiceUnavailableException error){
+			throw error;
 		} catch (Exception error){
 			return loginAdminResponse;
 		}
 	}
 
+	private void upgradePasswordHash(Admin admin, String rawPassword) {
+		if (!passwordEncoder.upgradeEncoding(admin.getPassword())) {
+			return;
+		}
+		try {
+			admin.setPassword(passwordEncoder.encode(rawPassword));
+			adminRepository.saveAndFlush(admin);
+			accountCache.evict(admin.getEmail());
+		} catch (ServiceUnavailableException error) {
+			// the login still succeeds; the hash is upgraded on a later login
+			log.warn("Skipped password rehash for admin {}: {}", admin.getEmail(), error.getMessage());
+		}
+	}
+
 	@Override
 	public Admin getById(String id) {
 		return adminRepository.findById(id).orElseThrow(() -> new HttpServerErrorException(
@@ -67,18 +89,22 @@ public class AdminServiceImpl implements AdminService {
 		Admin admin = adminRepository.findById(request.getId())
 				.orElseThrow(() -> new HttpServerErrorException(
 						HttpStatus.NOT_FOUND,"Admin with id " + request.getId() + " is not found"));
+		accountCache.evict(admin.getEmail());
 		admin.setName(request.getName());
 		admin.setEmail(request.getEmail());
 		if (request.getPassword() != null && !request.getPassword().isEmpty()){
-			String hashedPasswordAdmin = new BCryptPasswordEncoder().encode(request.getPassword());
+			String hashedPasswordAdmin = passwordEncoder.encode(request.getPassword());
 			admin.setPassword(hashedPasswordAdmin);
 		}
-		return adminRepository.saveAndFlush(admin);
+		Admin updatedAdmin = adminRepository.saveAndFlush(admin);
+		accountCache.evict(updatedAdmin.getEmail());
+		return updatedAdmin;
 	}
 
 	@Override
 	public void delete(String id) {
-		this.getById(id);
+		Admin admin = this.getById(id);
 		adminRepository.deleteById(id);
+		accountCache.evict(admin.getEmail());
 	}
 }
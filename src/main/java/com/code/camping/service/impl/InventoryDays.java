@@ -0,0 +1,45 @@
+package com.code.camping.service.impl;
+
+import com.code.camping.repository.ProductInventoryRepository;
+import lombok.AllArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Creates the inventory rows a date range is missing, on the booking's own connection.
+ * The inserts go through JDBC rather than JPA, so a duplicate from a concurrent booking
+ * fails only its own statement instead of marking the booking transaction for rollback.
+ */
+@Component
+@AllArgsConstructor
+public class InventoryDays {
+
+    private static final String INSERT_DAY =
+            "INSERT INTO product_inventory (product_id, inventory_day, reserved, capacity) VALUES (?, ?, 0, ?)";
+
+    private final ProductInventoryRepository inventory_repository;
+    private final JdbcTemplate jdbc_template;
+
+    /** Makes sure every day in the range has a row; a no-op when they all exist already. */
+    public void ensureExist(String productId, int capacity, LocalDate from, LocalDate to) {
+        Set<LocalDate> existing = new HashSet<>(inventory_repository.findDays(productId, from, to));
+        if (existing.size() == to.toEpochDay() - from.toEpochDay() + 1) {
+            return;
+        }
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            if (!existing.contains(day)) {
+                try {
+                    jdbc_template.update(INSERT_DAY, productId, Date.valueOf(day), capacity);
+                } catch (DuplicateKeyException e) {
+                    // A concurrent booking created the day first
+                }
+            }
+        }
+    }
+}
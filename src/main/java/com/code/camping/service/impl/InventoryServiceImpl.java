@@ -0,0 +1,76 @@
+package com.code.camping.service.impl;
+
+import com.code.camping.entity.Product;
+import com.code.camping.exception.InsufficientStockException;
+import com.code.camping.repository.BookingSpan;
+import com.code.camping.repository.ProductInventoryRepository;
+import com.code.camping.service.InventoryService;
+import com.code.camping.utils.BookingDays;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Reserves product units per day with conditional updates, so concurrent bookings only
+ * contend on the rows of the days they share and never oversell. Products without a stock
+ * are not tracked.
+ */
+@Service
+@AllArgsConstructor
+@Transactional
+public class InventoryServiceImpl implements InventoryService {
+
+    private final ProductInventoryRepository inventory_repository;
+    private final InventoryDays inventory_days;
+
+    @Override
+    public void reserve(Product product, Date dateStart, Date dateEnd, int quantity) {
+        if (product.getStock() == null || quantity <= 0) {
+            return;
+        }
+        LocalDate from = BookingDays.toDay(dateStart);
+        LocalDate to = BookingDays.lastDay(dateStart, dateEnd);
+        inventory_days.ensureExist(product.getId(), product.getStock(), from, to);
+
+        int days = (int) (to.toEpochDay() - from.toEpochDay()) + 1;
+        if (inventory_repository.reserve(product.getId(), from, to, quantity) != days) {
+            throw new InsufficientStockException("Product " + product.getName() + " is not available for the selected dates");
+        }
+    }
+
+    @Override
+    public void release(Product product, Date dateStart, Date dateEnd, int quantity) {
+        if (product.getStock() == null || quantity <= 0) {
+            return;
+        }
+        inventory_repository.release(product.getId(), BookingDays.toDay(dateStart), BookingDays.lastDay(dateStart, dateEnd), quantity);
+    }
+
+    // Untracked products have no inventory rows, so releasing them updates nothing
+    @Override
+    public void releaseAll(List<BookingSpan> bookings) {
+        for (BookingSpan booking : bookings) {
+            if (booking.getQuantity() != null && booking.getQuantity() > 0) {
+                inventory_repository.release(booking.getProductId(), BookingDays.toDay(booking.getDateStart()),
+                        BookingDays.lastDay(booking.getDateStart(), booking.getDateEnd()), booking.getQuantity());
+            }
+        }
+    }
+
+    @Override
+    public void updateCapacity(Product product) {
+        if (product.getStock() != null) {
+            inventory_repository.updateCapacity(product.getId(), LocalDate.now(ZoneOffset.UTC), product.getStock());
+        }
+    }
+
+    @Override
+    public void deleteByProductId(String productId) {
+        inventory_repository.deleteByProductId(productId);
+    }
+}
@@ -0,0 +1,219 @@
+package com.code.camping.service.impl;
+
+import com.code.camping.catalog.ProductCatalog;
+import com.code.camping.entity.Product;
+import com.code.camping.service.ProductImportService;
+import com.code.camping.utils.dto.request.ProductRequest;
+import com.code.camping.utils.dto.response.ImportReport;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Reads the import body one line at a time and writes products in batches, each batch in
+ * its own transaction that is flushed and cleared before the next one starts, so memory
+ * stays flat however large the file is. A failed batch is rolled back and reported; the
+ * batches before it stay imported.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductImportServiceImpl implements ProductImportService {
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ProductCatalog product_catalog;
+
+    @Value("${product.import.batch-size:500}")
+    private int batchSize;
+
+    @Value("${product.import.max-errors:100}")
+    private int maxErrors;
+
+    private interface RowParser {
+        ProductRequest parse(String line) throws RowException;
+    }
+
+    private static class RowException extends Exception {
+        RowException(String message) {
+            super(message);
+        }
+    }
+
+    @Override
+    public ImportReport importCsv(Reader reader) throws IOException {
+        BufferedReader lines = new BufferedReader(reader);
+        String header = lines.readLine();
+        ImportReport report = new ImportReport();
+        if (header == null) {
+            return report;
+        }
+        List<String> columns = parseCsvLine(header).stream()
+                .map(column -> column.trim().toLowerCase(Locale.ROOT))
+                .toList();
+        int name = columns.indexOf("name");
+        int price = columns.indexOf("price");
+        int stock = columns.indexOf("stock");
+        if (name < 0 || price < 0) {
+            addError(report, 1, "Header must contain name and price columns");
+            return report;
+        }
+
+        return run(lines, 2, report, line -> {
+            List<String> fields = parseCsvLine(line);
+            ProductRequest request = new ProductRequest();
+            request.setName(column(fields, name));
+            request.setPrice(number(column(fields, price), "price"));
+            request.setStock(stock < 0 ? null : number(column(fields, stock), "stock"));
+            return request;
+        });
+    }
+
+    @Override
+    public ImportReport importNdjson(Reader reader) throws IOException {
+        return run(new BufferedReader(reader), 1, new ImportReport(), line -> {
+            try {
+                return objectMapper.readValue(line, ProductRequest.class);
+            } catch (JsonProcessingException e) {
+                throw new RowException("Invalid JSON: " + e.getOriginalMessage());
+            }
+        });
+    }
+
+    private ImportReport run(BufferedReader lines, long firstLine, ImportReport report, RowParser parser) throws IOException {
+        List<Product> batch = new ArrayList<>(batchSize);
+        long batchFirstLine = firstLine;
+        long lineNumber = firstLine - 1;
+        String line;
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            report.setRows(report.getRows() + 1);
+            try {
+                ProductRequest request = parser.parse(line);
+                Set<ConstraintViolation<ProductRequest>> violations = validator.validate(request);
+                if (!violations.isEmpty()) {
+                    throw new RowException(violations.stream()
+                            .map(ConstraintViolation::getMessage)
+                            .sorted()
+                            .collect(Collectors.joining(", ")));
+                }
+                if (batch.isEmpty()) {
+                    batchFirstLine = lineNumber;
+                }
+                batch.add(request.convert());
+            } catch (RowException e) {
+                report.setFailed(report.getFailed() + 1);
+                addError(report, lineNumber, e.getMessage());
+            }
+            if (batch.size() >= batchSize) {
+                insert(batch, batchFirstLine, lineNumber, report);
+            }
+        }
+        if (!batch.isEmpty()) {
+            insert(batch, batchFirstLine, lineNumber, report);
+        }
+        log.info("Product import finished: {} rows, {} imported, {} failed",
+                report.getRows(), report.getImported(), report.getFailed());
+        return report;
+    }
+
+    private void insert(List<Product> batch, long firstLine, long lastLine, ImportReport report) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (Product product : batch) {
+                    entityManager.persist(product);
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+            product_catalog.putAll(batch);
+            report.setImported(report.getImported() + batch.size());
+        } catch (DataAccessException | PersistenceException e) {
+            log.warn("Product import batch for lines {}-{} failed", firstLine, lastLine, e);
+            report.setFailed(report.getFailed() + batch.size());
+            addError(report, firstLine, "Batch for lines " + firstLine + "-" + lastLine + " was not imported: "
+                    + NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+        }
+        batch.clear();
+    }
+
+    private void addError(ImportReport report, long line, String message) {
+        if (report.getErrors().size() < maxErrors) {
+            report.getErrors().add(new ImportReport.RowError(line, message));
+        } else {
+            report.setErrors_truncated(true);
+        }
+    }
+
+    private static String column(List<String> fields, int index) {
+        if (index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static Integer number(String value, String column) throws RowException {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new RowException(column + " must be a whole number");
+        }
+    }
+
+    /** Splits one CSV line, honouring double-quoted fields with "" as an escaped quote. */
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -1,33 +1,55 @@
 package com.code.camping.service.impl;
 
+import com.code.camping.catalog.OccupancyIndex;
+import com.code.camping.catalog.ProductCatalog;
 import com.code.camping.entity.Product;
 import com.code.camping.repository.ProductRepository;
+import com.code.camping.repository.TransactionRepository;
+import com.code.camping.service.InventoryService;
 import com.code.camping.service.ProductService;
-import com.code.camping.utils.GeneralSpecification;
 import com.code.camping.utils.dto.request.ProductRequest;
+import com.code.camping.utils.dto.webResponse.CursorPageResponse;
 import lombok.AllArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.client.HttpServerErrorException;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
 @Service
 @AllArgsConstructor
 public class ProductServiceImpl implements ProductService {
 
     private final ProductRepository product_repository;
+    private final TransactionRepository transaction_repository;
+    private final ProductCatalog product_catalog;
+    private final InventoryService inventory_service;
+    private final OccupancyIndex occupancy_index;
 
     @Override
     public Product create(ProductRequest request) {
-        return product_repository.saveAndFlush(request.convert());
+        Product product = product_repository.saveAndFlush(request.convert());
+        product_catalog.put(product);
+        return product;
     }
 
     @Override
     public Page<Product> getAll(Pageable pageable, ProductRequest request) {
-        Specification<Product> specification = GeneralSpecification.getSpecification(request);
-        return product_repository.findAll(specification, pageable);
+        return product_catalog.find(request, pageable);
+    }
+
+    @Override
+    public CursorPageResponse<Product> getAllAfter(String after, Pageable pageable, ProductRequest request) {
+        return product_catalog.findAfter(after, request, pageable);
     }
 
     @Override
@@ -36,14 +58,60 @@ public class ProductServiceImpl implements ProductService {
                 .orElseThrow(() -> new HttpServerErrorException(HttpStatus.NOT_FOUND, "Product with id " + id + " is not found"));
     }
 
+    // Bookings price and reserve from the rows themselves; the catalog snapshot only serves listings
+    @Override
+    public Map<String, Product> getAllById(Collection<String> ids) {
+        Map<String, Product> found = new HashMap<>();
+        product_repository.findAllById(new HashSet<>(ids)).forEach(product -> found.put(product.getId(), product));
+        for (String id : ids) {
+            if (!found.containsKey(id)) {
+                throw new HttpServerErrorException(HttpStatus.NOT_FOUND, "Product with id " + id + " is not found");
+            }
+        }
+        return found;
+    }
+
     @Override
+    @Transactional
     public Product update(Product request) {
-        return product_repository.save(request);
+        Product product = product_repository.save(request);
+        inventory_service.updateCapacity(product);
+        product_catalog.put(product);
+        return product;
     }
 
     @Override
+    @Transactional
     public void delete(String id) {
-        this.getById(id);
-        product_repository.deleteById(id);
+        // Set-based deletes, so the cost does not grow with the product's rental history in memory
+        transaction_repository.deleteByProductId(id);
+        inventory_service.deleteByProductId(id);
+        if (product_repository.deleteProductById(id) == 0) {
+            throw new HttpServerErrorException(HttpStatus.NOT_FOUND, "Product with id " + id + " is not found");
+        }
+        occupancy_index.remove(id);
+        product_catalog.remove(id);
+    }
+
+    @Override
+    public List<Product> getAvailable(LocalDate from, LocalDate to, int quantity) {
+        if (!to.isAfter(from) || quantity <= 0) {
+            throw new HttpServerErrorException(HttpStatus.BAD_REQUEST, "The date range must end after it starts and quantity must be positive");
+        }
+        LocalDate lastDay = to.minusDays(1);
+        List<Product> available = new ArrayList<>();
+        for (Product product : product_catalog.all()) {
+            // Products without a stock are not tracked and always available
+            if (product.getStock() == null
+                    || occupancy_index.peak(product.getId(), from, lastDay) + quantity <= product.getStock()) {
+                available.add(product);
+            }
+        }
+        return available;
+    }
+
+    @Override
+    public String getListingEtag(String query) {
+        return product_catalog.etag(query);
     }
 }
@@ -1,22 +1,36 @@
 package com.code.camping.service.impl;
 
+import com.code.camping.booking.BookingLanes;
+import com.code.camping.catalog.OccupancyIndex;
 import com.code.camping.entity.Product;
 import com.code.camping.entity.Transaction;
-import com.code.camping.entity.Wallet;
+import com.code.camping.repository.BookingSpan;
 import com.code.camping.repository.TransactionRepository;
+import com.code.camping.service.InventoryService;
 import com.code.camping.service.ProductService;
 import com.code.camping.service.TransactionService;
 import com.code.camping.service.WalletService;
 import com.code.camping.utils.GeneralSpecification;
+import com.code.camping.utils.KeysetPagination;
 import com.code.camping.utils.dto.request.TransactionRequest;
-import com.code.camping.utils.dto.request.WalletRequest;
+import com.code.camping.utils.dto.response.TransactionHistoryResponse;
+import com.code.camping.utils.dto.webResponse.CursorPageResponse;
 import lombok.AllArgsConstructor;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.client.HttpServerErrorException;
 
 @Service
@@ -25,41 +39,128 @@ public class TransactionServiceImpl implements TransactionService {
     private final TransactionRepository transaction_repository;
     private final WalletService wallet_service;
     private final ProductService product_service;
+    private final InventoryService inventory_service;
+    private final OccupancyIndex occupancy_index;
+    private final BookingLanes booking_lanes;
+    private final TransactionTemplate transaction_template;
 
+    // Wallet mutations run in the user's booking lane, each in its own transaction on the lane's thread
     @Override
     public Transaction create(TransactionRequest request, String id) {
-        Wallet wallet = wallet_service.fineByUserId(id);
-        String product_id = request.getProduct_id();
-        Product product = product_service.getById(product_id);
-        WalletRequest wallet_request = new WalletRequest();
-
-        Integer product_price = product.getPrice();
-        Integer balance = wallet.getBalance();
-
-        if (request.getDateStart() != null && request.getDateEnd() != null) {
-            long diffInMillies = Math.abs(request.getDateEnd().getTime() - request.getDateStart().getTime());
-            int diff = (int) (diffInMillies / (1000 * 60 * 60 * 24));
-            Integer total_price = diff * product_price * request.getQuantity();
-
-            if (balance >= total_price && id.equals(wallet_service.fineByUserId(id).getUser().getId())) {
-                wallet_request.setId(wallet.getId());
-                wallet_request.setBalance(wallet.getBalance());
-                wallet_request.setUser_id(id);
-                wallet_request.setBalance(balance - total_price);
-                request.setUser_id(id);
-                wallet_service.update(wallet_request);
-
-                request.setTotal(total_price);
-
-                Transaction transaction = request.convert();
-                transaction.setDuration(Integer.valueOf(String.valueOf(diff)));
-                return transaction_repository.saveAndFlush(transaction);
-            } else {
-                throw new NullPointerException("TOP UP DULU BOS");
-            }
-        } else {
+        return booking_lanes.run(id, () -> transaction_template.execute(status -> book(request, id)));
+    }
+
+    @Override
+    public List<Transaction> checkout(List<TransactionRequest> items, String id) {
+        return booking_lanes.run(id, () -> transaction_template.execute(status -> bookAll(items, id)));
+    }
+
+    @Override
+    public Transaction update(TransactionRequest request, String id) {
+        return booking_lanes.run(id, () -> transaction_template.execute(status -> rebook(request, id)));
+    }
+
+    private Transaction book(TransactionRequest request, String id) {
+        if (request.getDateStart() == null || request.getDateEnd() == null) {
             throw new IllegalArgumentException("DateStart and DateEnd cannot be null");
         }
+        requirePositiveQuantity(request);
+        Product product = product_service.getById(request.getProduct_id());
+
+        int diff = rentalDays(request);
+        int total_price = priceOf(diff, product.getPrice(), request.getQuantity());
+
+        // The conditional debit replaces reading the wallet and writing back a computed balance
+        if (total_price > 0) {
+            wallet_service.debit(id, total_price);
+        }
+        inventory_service.reserve(product, request.getDateStart(), request.getDateEnd(), request.getQuantity());
+        occupancy_index.book(product.getId(), request.getDateStart(), request.getDateEnd(), request.getQuantity());
+
+        // A new row; an id sent by the client would make the save overwrite an existing booking
+        request.setId(null);
+        request.setUser_id(id);
+        request.setPrice_history(product.getPrice());
+        request.setTotal(total_price);
+        Transaction transaction = request.convert();
+        transaction.setDuration(diff);
+        return transaction_repository.saveAndFlush(transaction);
+    }
+
+    private List<Transaction> bookAll(List<TransactionRequest> items, String id) {
+        if (items == null || items.isEmpty()) {
+            throw new HttpServerErrorException(HttpStatus.BAD_REQUEST, "Checkout needs at least one item");
+        }
+        for (TransactionRequest item : items) {
+            if (item.getProduct_id() == null || item.getDateStart() == null || item.getDateEnd() == null
+                    || item.getQuantity() == null || item.getQuantity() <= 0) {
+                throw new HttpServerErrorException(HttpStatus.BAD_REQUEST, "Every item needs product_id, dateStart, dateEnd and a positive quantity");
+            }
+        }
+        Map<String, Product> products = product_service.getAllById(
+                items.stream().map(TransactionRequest::getProduct_id).toList());
+
+        int total_price = 0;
+        List<Transaction> transactions = new ArrayList<>(items.size());
+        for (TransactionRequest item : items) {
+            Product product = products.get(item.getProduct_id());
+            int diff = rentalDays(item);
+            int item_total = priceOf(diff, product.getPrice(), item.getQuantity());
+            total_price = addPrices(total_price, item_total);
+
+            item.setId(null);
+            item.setUser_id(id);
+            item.setPrice_history(product.getPrice());
+            item.setTotal(item_total);
+            Transaction transaction = item.convert();
+            transaction.setDuration(diff);
+            transactions.add(transaction);
+        }
+
+        // One debit for the whole cart; any item failing below rolls it back with the rest
+        if (total_price > 0) {
+            wallet_service.debit(id, total_price);
+        }
+        for (TransactionRequest item : items) {
+            Product product = products.get(item.getProduct_id());
+            inventory_service.reserve(product, item.getDateStart(), item.getDateEnd(), item.getQuantity());
+            occupancy_index.book(product.getId(), item.getDateStart(), item.getDateEnd(), item.getQuantity());
+        }
+        // UUID ids leave the inserts to the flush at commit, which sends them as JDBC batches
+        return transaction_repository.saveAll(transactions);
+    }
+
+    private static void requirePositiveQuantity(TransactionRequest request) {
+        if (request.getQuantity() == null || request.getQuantity() <= 0) {
+            throw new HttpServerErrorException(HttpStatus.BAD_REQUEST, "Quantity must be positive");
+        }
+    }
+
+    // Checked, so an overflow cannot wrap to a negative total that skips the debit
+    private static int priceOf(int days, int price, int quantity) {
+        try {
+            return Math.multiplyExact(Math.multiplyExact(days, price), quantity);
+        } catch (ArithmeticException e) {
+            throw new HttpServerErrorException(HttpStatus.BAD_REQUEST, "Booking total is too large");
+        }
+    }
+
+    private static int addPrices(int total, int price) {
+        try {
+            return Math.addExact(total, price);
+        } catch (ArithmeticException e) {
+            throw new HttpServerErrorException(HttpStatus.BAD_REQUEST, "Booking total is too large");
+        }
+    }
+
+    // Rows written before quantities were recorded have none; they hold no inventory
+    private static int bookedQuantity(Transaction transaction) {
+        return transaction.getQuantity() == null ? 0 : transaction.getQuantity();
+    }
+
+    private static int rentalDays(TransactionRequest request) {
+        long diffInMillies = Math.abs(request.getDateEnd().getTime() - request.getDateStart().getTime());
+        return (int) (diffInMillies / (1000 * 60 * 60 * 24));
     }
 
     @Override
@@ -68,41 +169,96 @@ public class TransactionServiceImpl implements TransactionService {
         return transaction_repository.findAll(specification, pageable);
     }
 
+    @Override
+    public CursorPageResponse<Transaction> getAllAfter(String after, Pageable pageable, TransactionRequest request) {
+        Sort.Order order = KeysetPagination.orderOf(pageable.getSort());
+        Specification<Transaction> specification = GeneralSpecification.<Transaction, TransactionRequest>getSpecification(request)
+                .and(KeysetPagination.after(after, order));
+        List<Transaction> rows = transaction_repository.findBy(specification, query -> query
+                .sortBy(KeysetPagination.sortOf(order))
+                .limit(pageable.getPageSize() + 1)
+                .all());
+        return KeysetPagination.page(rows, pageable.getPageSize(), order, Transaction::getId);
+    }
+
     @Override
     public Transaction getById(String id) {
         return transaction_repository.findById(id)
         .orElseThrow(() -> new HttpServerErrorException(HttpStatus.NOT_FOUND, "User with id " + id + " is not found"));
     }
 
-    @Override
-    public Transaction update(TransactionRequest request , String id) {
-
-        Integer product_price = request.getPrice_history();
+    private Transaction rebook(TransactionRequest request, String id) {
+        if (request.getId() == null || request.getDateStart() == null || request.getDateEnd() == null) {
+            throw new HttpServerErrorException(HttpStatus.BAD_REQUEST, "Transaction id, dateStart and dateEnd cannot be null");
+        }
+        requirePositiveQuantity(request);
 
         Transaction total_lama = this.getById(request.getId());
+        // Someone else's booking is reported like a missing one, so ids cannot be probed
+        if (total_lama.getUser() == null || !id.equals(total_lama.getUser().getId())) {
+            throw new HttpServerErrorException(HttpStatus.NOT_FOUND, "Transaction with id " + request.getId() + " is not found");
+        }
+        int quantity_lama = bookedQuantity(total_lama);
+        inventory_service.release(total_lama.getProduct(), total_lama.getDateStart(), total_lama.getDateEnd(), quantity_lama);
+        occupancy_index.unbook(total_lama.getProduct().getId(), total_lama.getDateStart(), total_lama.getDateEnd(), quantity_lama);
+        Product product = request.getProduct_id() == null ? total_lama.getProduct() : product_service.getById(request.getProduct_id());
+        inventory_service.reserve(product, request.getDateStart(), request.getDateEnd(), request.getQuantity());
+        occupancy_index.book(product.getId(), request.getDateStart(), request.getDateEnd(), request.getQuantity());
        
-        long diffInMillies = Math.abs(request.getDateEnd().getTime() - request.getDateStart().getTime());
-        int diff = (int) (diffInMillies / (1000 * 60 * 60 * 24));
-       
-        Integer total_baru = diff * product_price * request.getQuantity();
-        Integer baru = total_baru - total_lama.getTotal();
-        Wallet wallet_baru = wallet_service.fineByUserId(id);
+        int diff = rentalDays(request);
 
-        wallet_baru.setBalance(wallet_baru.getBalance() - baru);
+        // Priced from the product row, never from the price the client sent
+        int total_baru = priceOf(diff, product.getPrice(), request.getQuantity());
+        Integer baru = total_baru - (total_lama.getTotal() == null ? 0 : total_lama.getTotal());
+        if (baru > 0) {
+            wallet_service.debit(id, baru);
+        } else if (baru < 0) {
+            wallet_service.credit(id, -baru);
+        }
         request.setUser_id(id);
+        request.setProduct_id(product.getId());
+        request.setPrice_history(product.getPrice());
         request.setTotal(total_baru);
         return transaction_repository.saveAndFlush(request.convert());
     }
 
     @Override
+    @Transactional
     public void delete(String id) {
-        this.getById(id);
+        Transaction transaction = this.getById(id);
+        int quantity = bookedQuantity(transaction);
+        inventory_service.release(transaction.getProduct(), transaction.getDateStart(), transaction.getDateEnd(), quantity);
+        occupancy_index.unbook(transaction.getProduct().getId(), transaction.getDateStart(), transaction.getDateEnd(), quantity);
         transaction_repository.deleteById(id);
     }
 
+    @Override
+    @Transactional
+    public void deleteByUserId(String userId) {
+        // Only upcoming bookings still hold inventory; past ones are removed without being read
+        Date today = Date.from(LocalDate.now(ZoneOffset.UTC).atStartOfDay(ZoneOffset.UTC).toInstant());
+        List<BookingSpan> upcoming = transaction_repository.findUserBookingsEndingFrom(userId, today);
+        inventory_service.releaseAll(upcoming);
+        occupancy_index.unbookAll(upcoming);
+        transaction_repository.deleteByUserId(userId);
+    }
+
     @Override
     public List<Transaction> findByUserId(String userId) {
         return transaction_repository.findByUserId(userId);
         
     }
+
+    @Override
+    public Page<TransactionHistoryResponse> getHistory(String userId, LocalDate from, LocalDate to, Pageable pageable) {
+        if (from != null && to != null && to.isBefore(from)) {
+            throw new HttpServerErrorException(HttpStatus.BAD_REQUEST, "The history range must not end before it starts");
+        }
+        // Newest first with a fixed order, since the sort keys must exist in the projection query
+        Pageable page = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(),
+                Sort.by(Sort.Order.desc("dateStart"), Sort.Order.desc("id")));
+        Date start = from == null ? null : Date.from(from.atStartOfDay(ZoneOffset.UTC).toInstant());
+        Date end = to == null ? null : Date.from(to.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant());
+        return transaction_repository.findHistory(userId, start, end, page);
+    }
 }
@@ -2,22 +2,31 @@ package com.code.camping.service.impl;
 
 import com.code.camping.entity.User;
 import com.code.camping.exception.ResourceNotFoundException;
+import com.code.camping.exception.ServiceUnavailableException;
 import com.code.camping.repository.UserRepository;
+import com.code.camping.repository.WalletRepository;
+import com.code.camping.security.AccountCache;
 import com.code.camping.security.JwtUtils;
+import com.code.camping.service.TransactionService;
 import com.code.camping.service.UserService;
 import com.code.camping.utils.GeneralSpecification;
+import com.code.camping.utils.KeysetPagination;
 import com.code.camping.utils.dto.request.LoginUserRequest;
 import com.code.camping.utils.dto.request.RegisterUserRequest;
 import com.code.camping.utils.dto.response.LoginUserResponse;
+import com.code.camping.utils.dto.webResponse.CursorPageResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -27,6 +36,9 @@ public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
     private final JwtUtils jwtUtils;
     private final PasswordEncoder passwordEncoder;
+    private final AccountCache accountCache;
+    private final WalletRepository walletRepository;
+    private final TransactionService transactionService;
 
     @Override
     public User create(RegisterUserRequest request) {
@@ -56,12 +68,15 @@ public class UserServiceImpl implements UserService {
         try {
             User user = userRepository.findByEmail(request.getEmail());
             if (user != null && passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+                upgradePasswordHash(user, request.getPassword());
                 String accessToken = jwtUtils.generateAccessToken(user);
                 loginResponse.setAccessToken(accessToken);
                 log.info("User logged in successfully: {}", request.getEmail());
             } else {
                 log.warn("Login failed for user: {}", request.getEmail());
             }
+        } catch (ServiceUnavailableException error) {
+            throw error;
         } catch (Exception error) {
             log.error("Error during login for user: {}", request.getEmail(), error);
         }
@@ -69,6 +84,20 @@ public class UserServiceImpl implements UserService {
         return loginResponse;
     }
 
+    private void upgradePasswordHash(User user, String rawPassword) {
+        if (!passwordEncoder.upgradeEncoding(user.getPassword())) {
+            return;
+        }
+        try {
+            user.setPassword(passwordEncoder.encode(rawPassword));
+            userRepository.save(user);
+            accountCache.evict(user.getEmail());
+            log.info("Rehashed password for user: {}", user.getEmail());
+        } catch (ServiceUnavailableException error) {
+            log.warn("Skipped password rehash for user {}: {}", user.getEmail(), error.getMessage());
+        }
+    }
+
     @Override
     public User getById(String id) {
         log.debug("Fetching user with ID: {}", id);
@@ -83,12 +112,26 @@ public class UserServiceImpl implements UserService {
         return userRepository.findAll(specification, pageable);
     }
 
+    @Override
+    public CursorPageResponse<User> getAllAfter(String after, Pageable pageable, RegisterUserRequest searchCriteria) {
+        log.debug("Fetching users after cursor with size: {}", pageable.getPageSize());
+        Sort.Order order = KeysetPagination.orderOf(pageable.getSort());
+        Specification<User> specification = GeneralSpecification.<User, RegisterUserRequest>getSpecification(searchCriteria)
+                .and(KeysetPagination.after(after, order));
+        List<User> rows = userRepository.findBy(specification, query -> query
+                .sortBy(KeysetPagination.sortOf(order))
+                .limit(pageable.getPageSize() + 1)
+                .all());
+        return KeysetPagination.page(rows, pageable.getPageSize(), order, User::getId);
+    }
+
     @Override
     public User update(RegisterUserRequest request) {
         log.info("Updating user with ID: {}", request.getId());
         
         User existingUser = userRepository.findById(request.getId())
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", request.getId()));
+        accountCache.evict(existingUser.getEmail());
         
         existingUser.setName(request.getName());
         existingUser.setEmail(request.getEmail());
@@ -99,6 +142,7 @@ public class UserServiceImpl implements UserService {
         }
 
         User updatedUser = userRepository.saveAndFlush(existingUser);
+        accountCache.evict(updatedUser.getEmail());
         log.info("User updated successfully: {}", updatedUser.getId());
         return updatedUser;
     }
@@ -107,7 +151,10 @@ public class UserServiceImpl implements UserService {
     public void delete(String id) {
         log.info("Deleting user with ID: {}", id);
         User user = getById(id);
-        userRepository.deleteById(id);
+        transactionService.deleteByUserId(id);
+        walletRepository.deleteByUserId(id);
+        userRepository.deleteUserById(id);
+        accountCache.evict(user.getEmail());
         log.info("User deleted successfully: {}", id);
     }
 }
@@ -1,18 +1,25 @@
 package com.code.camping.service.impl;
 
 import com.code.camping.entity.Wallet;
+import com.code.camping.exception.InsufficientBalanceException;
 import com.code.camping.repository.WalletRepository;
 import com.code.camping.service.WalletService;
 import com.code.camping.utils.GeneralSpecification;
+import com.code.camping.utils.KeysetPagination;
 import com.code.camping.utils.dto.request.WalletRequest;
+import com.code.camping.utils.dto.webResponse.CursorPageResponse;
 import lombok.AllArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.client.HttpServerErrorException;
 
+import java.util.List;
+
 @Service
 @AllArgsConstructor
 public class WalletServiceImpl implements WalletService {
@@ -30,6 +37,18 @@ public class WalletServiceImpl implements WalletService {
         return walletRepository.findAll(specification, pageable);
     }
 
+    @Override
+    public CursorPageResponse<Wallet> getAllAfter(String after, Pageable pageable, WalletRequest request) {
+        Sort.Order order = KeysetPagination.orderOf(pageable.getSort());
+        Specification<Wallet> specification = GeneralSpecification.<Wallet, WalletRequest>getSpecification(request)
+                .and(KeysetPagination.after(after, order));
+        List<Wallet> rows = walletRepository.findBy(specification, query -> query
+                .sortBy(KeysetPagination.sortOf(order))
+                .limit(pageable.getPageSize() + 1)
+                .all());
+        return KeysetPagination.page(rows, pageable.getPageSize(), order, Wallet::getId);
+    }
+
     @Override
     public Wallet getById(String id) {
         return walletRepository.findById(id)
@@ -41,6 +60,28 @@ public class WalletServiceImpl implements WalletService {
                 
     }
 
+    @Override
+    @Transactional
+    public void debit(String userId, int amount) {
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Debit amount must be positive");
+        }
+        if (walletRepository.debit(userId, amount) == 0) {
+            throw new InsufficientBalanceException("TOP UP DULU BOS");
+        }
+    }
+
+    @Override
+    @Transactional
+    public void credit(String userId, int amount) {
+        if (amount <= 0) {
+            throw new IllegalArgumentException("Credit amount must be positive");
+        }
+        if (walletRepository.credit(userId, amount) == 0) {
+            throw new HttpServerErrorException(HttpStatus.NOT_FOUND, "Wallet for user " + userId + " is not found");
+        }
+    }
+
     @Override
     public Wallet update(WalletRequest request) {
         return walletRepository.saveAndFlush(request.convert());
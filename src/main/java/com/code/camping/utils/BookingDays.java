@@ -0,0 +1,24 @@
+package com.code.camping.utils;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Date;
+
+/**
+ * The days a booking occupies: from its start day up to, but not including, its end day.
+ * A same-day booking occupies its start day. Dates are read in UTC, as requests parse them.
+ */
+public class BookingDays {
+
+    public static LocalDate toDay(Date date) {
+        return date.toInstant().atZone(ZoneOffset.UTC).toLocalDate();
+    }
+
+    public static LocalDate lastDay(LocalDate from, LocalDate end) {
+        return end.isAfter(from) ? end.minusDays(1) : from;
+    }
+
+    public static LocalDate lastDay(Date dateStart, Date dateEnd) {
+        return lastDay(toDay(dateStart), toDay(dateEnd));
+    }
+}
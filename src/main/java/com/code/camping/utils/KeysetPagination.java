@@ -0,0 +1,154 @@
+package com.code.camping.utils;
+
+import com.code.camping.utils.dto.webResponse.CursorPageResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Seek pagination over a single sort property with the id as tie-breaker. The cursor is an
+ * opaque token carrying the sort key and id of the last row returned, so the next page is
+ * read with {@code (sort_key, id) > (?, ?)} instead of an offset and needs no count query.
+ * Null sort keys order before every other value, as they do in MySQL and H2.
+ */
+public class KeysetPagination {
+
+    public static final String ID = "id";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final DefaultConversionService CONVERSION = new DefaultConversionService();
+
+    public record Cursor(String property, String value, String id) {
+
+        /** The sort key converted to the type of the property it was read from. */
+        public Object valueAs(Class<?> type) {
+            if (value == null) {
+                return null;
+            }
+            if (Date.class.isAssignableFrom(type)) {
+                return new Date(Long.parseLong(value));
+            }
+            return CONVERSION.convert(value, type);
+        }
+    }
+
+    /** The single order a cursor page is sorted by; sorting by anything but one property and id is rejected. */
+    public static Sort.Order orderOf(Sort sort) {
+        List<Sort.Order> orders = sort.toList();
+        if (orders.isEmpty()) {
+            return Sort.Order.asc(ID);
+        }
+        Sort.Order order = orders.get(0);
+        boolean onlyIdAfter = orders.stream().skip(1).allMatch(o -> o.getProperty().equals(ID));
+        if (orders.size() > 2 || !onlyIdAfter) {
+            throw new HttpServerErrorException(HttpStatus.BAD_REQUEST, "Cursor pages can be sorted by one property only");
+        }
+        return order;
+    }
+
+    /** The order followed by the id in the same direction, so every row has a distinct position. */
+    public static Sort sortOf(Sort.Order order) {
+        if (order.getProperty().equals(ID)) {
+            return Sort.by(order);
+        }
+        return Sort.by(order, new Sort.Order(order.getDirection(), ID));
+    }
+
+    /** Matches the rows after the cursor, or every row when there is no cursor yet. */
+    public static <T> Specification<T> after(String token, Sort.Order order) {
+        Cursor cursor = decode(token, order);
+        if (cursor == null) {
+            return (root, query, criteriaBuilder) -> null;
+        }
+        return (root, query, criteriaBuilder) -> {
+            Path<String> id = root.get(ID);
+            Predicate idAfter = order.isAscending()
+                    ? criteriaBuilder.greaterThan(id, cursor.id())
+                    : criteriaBuilder.lessThan(id, cursor.id());
+            if (order.getProperty().equals(ID)) {
+                return idAfter;
+            }
+            Path<Comparable<Object>> key = root.get(order.getProperty());
+            Object value = cursor.valueAs(key.getJavaType());
+            if (value == null) {
+                Predicate sameKey = criteriaBuilder.and(criteriaBuilder.isNull(key), idAfter);
+                return order.isAscending() ? criteriaBuilder.or(sameKey, criteriaBuilder.isNotNull(key)) : sameKey;
+            }
+            @SuppressWarnings("unchecked")
+            Comparable<Object> comparableValue = (Comparable<Object>) value;
+            Predicate sameKey = criteriaBuilder.and(criteriaBuilder.equal(key, comparableValue), idAfter);
+            if (order.isAscending()) {
+                return criteriaBuilder.or(criteriaBuilder.greaterThan(key, comparableValue), sameKey);
+            }
+            return criteriaBuilder.or(criteriaBuilder.lessThan(key, comparableValue), sameKey, criteriaBuilder.isNull(key));
+        };
+    }
+
+    /**
+     * Builds the response from rows fetched with a limit of size + 1; the extra row only
+     * tells whether another page exists.
+     */
+    public static <T> CursorPageResponse<T> page(List<T> rows, int size, Sort.Order order, Function<T, String> idOf) {
+        List<T> content = rows.size() > size ? new ArrayList<>(rows.subList(0, size)) : rows;
+        String nextCursor = null;
+        if (rows.size() > size) {
+            T last = content.get(content.size() - 1);
+            Object value = order.getProperty().equals(ID) ? null : readProperty(last, order.getProperty());
+            nextCursor = encode(order.getProperty(), value, idOf.apply(last));
+        }
+        return new CursorPageResponse<>(content, nextCursor, size);
+    }
+
+    /** Returns null for an empty token, which asks for the first page. */
+    public static Cursor decode(String token, Sort.Order order) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            Map<?, ?> fields = MAPPER.readValue(Base64.getUrlDecoder().decode(token), Map.class);
+            Cursor cursor = new Cursor((String) fields.get("p"), (String) fields.get("v"), (String) fields.get("i"));
+            if (cursor.id() == null || !order.getProperty().equals(cursor.property())) {
+                throw new HttpServerErrorException(HttpStatus.BAD_REQUEST, "Cursor does not match the requested sort");
+            }
+            return cursor;
+        } catch (IOException | IllegalArgumentException | ClassCastException e) {
+            throw new HttpServerErrorException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+
+    private static String encode(String property, Object value, String id) {
+        Map<String, String> fields = new HashMap<>();
+        fields.put("p", property);
+        fields.put("v", value instanceof Date date ? String.valueOf(date.getTime()) : value == null ? null : value.toString());
+        fields.put("i", id);
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(MAPPER.writeValueAsBytes(fields));
+        } catch (IOException e) {
+            throw new IllegalStateException("Cursor could not be encoded", e);
+        }
+    }
+
+    private static Object readProperty(Object row, String property) {
+        BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(row);
+        if (!wrapper.isReadableProperty(property)) {
+            throw new HttpServerErrorException(HttpStatus.BAD_REQUEST, "Cannot sort by " + property);
+        }
+        return wrapper.getPropertyValue(property);
+    }
+}
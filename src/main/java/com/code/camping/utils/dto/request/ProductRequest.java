@@ -17,10 +17,14 @@ public class ProductRequest {
     @NotNull(message = "Price cannot be null")
     private Integer price;
 
+    @PositiveOrZero(message = "Stock cannot be negative")
+    private Integer stock;
+
     public Product convert(){
         return Product.builder()
                 .name(name)
                 .price(price)
+                .stock(stock)
                 .build();
     }
 
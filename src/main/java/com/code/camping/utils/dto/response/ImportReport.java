@@ -0,0 +1,28 @@
+package com.code.camping.utils.dto.response;
+
+import lombok.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ImportReport {
+
+    private long rows;
+    private long imported;
+    private long failed;
+    @Builder.Default
+    private List<RowError> errors = new ArrayList<>();
+    private boolean errors_truncated;
+
+    @Getter
+    @AllArgsConstructor
+    public static class RowError {
+        private long line;
+        private String message;
+    }
+}
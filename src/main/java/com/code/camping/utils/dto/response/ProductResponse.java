@@ -13,12 +13,14 @@ public class ProductResponse {
     private String id;
     private String name;
     private Integer price;
+    private Integer stock;
 
     public static ProductResponse fromProduct(Product product){
         return ProductResponse.builder()
                 .id(product.getId())
                 .name(product.getName())
                 .price(product.getPrice())
+                .stock(product.getStock())
                 .build();
     }
 }
@@ -0,0 +1,28 @@
+package com.code.camping.utils.dto.response;
+
+import lombok.*;
+
+import java.util.Date;
+
+/**
+ * A transaction as listed in the user's history, read straight from a JPQL constructor
+ * expression with the product's name and current price joined in.
+ */
+@AllArgsConstructor
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+public class TransactionHistoryResponse {
+
+    private String id;
+    private Integer quantity;
+    private Integer price_history;
+    private Date dateStart;
+    private Date dateEnd;
+    private Integer duration;
+    private Integer total;
+    private String product_id;
+    private String product_name;
+    private Integer product_price;
+}
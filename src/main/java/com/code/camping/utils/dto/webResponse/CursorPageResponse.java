@@ -0,0 +1,16 @@
+package com.code.camping.utils.dto.webResponse;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class CursorPageResponse<T> {
+    private List<T> content;
+    private String next_cursor;
+    private Integer size;
+}
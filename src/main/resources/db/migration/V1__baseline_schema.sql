@@ -0,0 +1,48 @@
+-- Schema as created by ddl-auto=update before migrations were introduced. Existing databases
+-- are baselined at this version, so it must not change. Kept to types that MySQL and H2 both accept.
+
+CREATE TABLE admins (
+    id       VARCHAR(255) NOT NULL,
+    name     VARCHAR(255),
+    email    VARCHAR(255),
+    password VARCHAR(255),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE users (
+    id       VARCHAR(255) NOT NULL,
+    name     VARCHAR(255),
+    email    VARCHAR(255),
+    password VARCHAR(255),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE products (
+    id    VARCHAR(255) NOT NULL,
+    name  VARCHAR(255),
+    price INTEGER,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE wallets (
+    id      VARCHAR(255) NOT NULL,
+    balance INTEGER,
+    user_id VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_wallets_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE transactions (
+    id            VARCHAR(255) NOT NULL,
+    quantity      INTEGER,
+    date_start    DATETIME(6),
+    date_end      DATETIME(6),
+    duration      INTEGER,
+    price_history INTEGER,
+    total         INTEGER,
+    user_id       VARCHAR(255) NOT NULL,
+    product_id    VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_transactions_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_transactions_product FOREIGN KEY (product_id) REFERENCES products (id)
+);
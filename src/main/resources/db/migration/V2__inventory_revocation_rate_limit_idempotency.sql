@@ -0,0 +1,37 @@
+-- Per-day stock for products that track it; products without a stock are not tracked
+ALTER TABLE products ADD COLUMN stock INTEGER;
+
+CREATE TABLE product_inventory (
+    product_id    VARCHAR(255) NOT NULL,
+    inventory_day DATE         NOT NULL,
+    reserved      INTEGER      NOT NULL,
+    capacity      INTEGER      NOT NULL,
+    PRIMARY KEY (product_id, inventory_day)
+);
+
+-- Token revocation list
+CREATE TABLE revoked_tokens (
+    jti        VARCHAR(255) NOT NULL,
+    expires_at DATETIME(6),
+    PRIMARY KEY (jti)
+);
+
+-- Rate limit buckets shared between replicas
+CREATE TABLE rate_limit_buckets (
+    bucket_key  VARCHAR(255) NOT NULL,
+    tokens      BIGINT       NOT NULL,
+    refilled_at BIGINT       NOT NULL,
+    version     BIGINT,
+    PRIMARY KEY (bucket_key)
+);
+
+-- Recorded responses for Idempotency-Key
+CREATE TABLE idempotency_keys (
+    id              VARCHAR(320) NOT NULL,
+    request_hash    VARCHAR(64)  NOT NULL,
+    response_status INTEGER,
+    content_type    VARCHAR(255),
+    response_body   LONGBLOB,
+    created_at      DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id)
+);
@@ -0,0 +1,8 @@
+-- Login looks accounts up by email, and an email identifies one account per table
+CREATE UNIQUE INDEX ux_users_email ON users (email);
+CREATE UNIQUE INDEX ux_admins_email ON admins (email);
+
+-- wallets.user_id needs no index of its own: fk_wallets_user already brings one on MySQL and H2
+
+-- A user's transactions, filtered and ordered by start date in the history
+CREATE INDEX ix_transactions_user_id_date_start ON transactions (user_id, date_start);
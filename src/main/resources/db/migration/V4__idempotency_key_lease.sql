@@ -0,0 +1,3 @@
+-- An unfinished claim holds its key only until the lease runs out, so a request that died
+-- mid-flight does not block retries until the key expires
+ALTER TABLE idempotency_keys ADD COLUMN locked_until DATETIME(6);
@@ -0,0 +1,3 @@
+-- Lets each replica pick up revocations made elsewhere since its last reload
+ALTER TABLE revoked_tokens ADD COLUMN revoked_at DATETIME(6);
+CREATE INDEX ix_revoked_tokens_revoked_at ON revoked_tokens (revoked_at);
@@ -0,0 +1,134 @@
+package com.code.camping.booking;
+
+import com.code.camping.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookingLanesTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+    private BookingLanes bookingLanes;
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+        if (bookingLanes != null) {
+            bookingLanes.shutdown();
+        }
+    }
+
+    @Test
+    void testDisabledLanesRunOnTheCallerThread() {
+        bookingLanes = new BookingLanes(meterRegistry, false, 4, 10, Duration.ofSeconds(1));
+
+        assertEquals(Thread.currentThread().getName(), bookingLanes.run("user-1", () -> Thread.currentThread().getName()));
+    }
+
+    @Test
+    void testOneUsersBookingsRunOneAtATime() throws Exception {
+        bookingLanes = new BookingLanes(meterRegistry, true, 4, 1000, Duration.ofSeconds(5));
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger mostRunning = new AtomicInteger();
+
+        List<Future<?>> bookings = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            bookings.add(callers.submit(() -> bookingLanes.run("user-1", () -> {
+                mostRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                Thread.yield();
+                return running.decrementAndGet();
+            })));
+        }
+        for (Future<?> booking : bookings) {
+            booking.get(5, TimeUnit.SECONDS);
+        }
+
+        assertEquals(1, mostRunning.get());
+        assertEquals(200, meterRegistry.get("booking.lanes.latency").timers().stream()
+                .mapToLong(timer -> timer.count()).sum());
+    }
+
+    @Test
+    void testFullLaneIsRejected() throws Exception {
+        bookingLanes = new BookingLanes(meterRegistry, true, 1, 1, Duration.ofSeconds(5));
+        CountDownLatch release = occupyLane();
+        callers.submit(() -> bookingLanes.run("user-1", () -> true));
+        awaitQueueDepth(1);
+
+        assertThrows(ServiceUnavailableException.class, () -> bookingLanes.run("user-1", () -> true));
+        assertEquals(1, meterRegistry.get("booking.lanes.rejected").counter().count());
+        release.countDown();
+    }
+
+    @Test
+    void testBookingThatTimesOutBeforeStartingNeverRuns() throws Exception {
+        bookingLanes = new BookingLanes(meterRegistry, true, 1, 10, Duration.ofMillis(100));
+        CountDownLatch release = occupyLane();
+        AtomicBoolean ran = new AtomicBoolean();
+
+        assertThrows(ServiceUnavailableException.class, () -> bookingLanes.run("user-1", () -> ran.getAndSet(true)));
+
+        release.countDown();
+        // Anything queued behind the abandoned booking has run once this returns
+        bookingLanes.run("user-1", () -> true);
+        assertFalse(ran.get());
+    }
+
+    @Test
+    void testBookingThatTimesOutAfterStartingIsSeenThrough() {
+        bookingLanes = new BookingLanes(meterRegistry, true, 1, 10, Duration.ofMillis(50));
+
+        String result = bookingLanes.run("user-1", () -> {
+            sleep(300);
+            return "booked";
+        });
+
+        assertEquals("booked", result);
+    }
+
+    private CountDownLatch occupyLane() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        callers.submit(() -> bookingLanes.run("user-1", () -> {
+            started.countDown();
+            try {
+                return release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        return release;
+    }
+
+    private void awaitQueueDepth(int depth) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("booking.lanes.queue.depth").gauge().value() < depth) {
+            assertTrue(System.nanoTime() < deadline, "Lane queue never reached " + depth);
+            Thread.sleep(5);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
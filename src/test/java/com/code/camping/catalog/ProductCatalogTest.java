@@ -0,0 +1,79 @@
+package com.code.camping.catalog;
+
+import com.code.camping.entity.Product;
+import com.code.camping.repository.ProductRepository;
+import com.code.camping.utils.dto.request.ProductRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductCatalogTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private ProductCatalog productCatalog;
+
+    @BeforeEach
+    void setUp() {
+        when(productRepository.findAll()).thenReturn(List.of(
+                Product.builder().id("p1").name("Dome Tent").price(100).stock(3).build(),
+                Product.builder().id("p2").name("Tunnel Tent").price(100).stock(5).build(),
+                Product.builder().id("p3").name("Lantern").price(5).build()));
+        productCatalog = new ProductCatalog(productRepository, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void testFindFiltersOnStock() {
+        ProductRequest filter = ProductRequest.builder().stock(3).build();
+
+        List<Product> found = productCatalog.find(filter, Pageable.unpaged()).getContent();
+
+        assertEquals(List.of("p1"), found.stream().map(Product::getId).toList());
+    }
+
+    @Test
+    void testFindCombinesStockWithOtherFilters() {
+        ProductRequest filter = ProductRequest.builder().name("tent").price(100).stock(5).build();
+
+        List<Product> found = productCatalog.find(filter, Pageable.unpaged()).getContent();
+
+        assertEquals(List.of("p2"), found.stream().map(Product::getId).toList());
+    }
+
+    @Test
+    void testEtagIsTheSameOnEveryReplicaWithTheSameProducts() {
+        ProductCatalog otherReplica = new ProductCatalog(productRepository, new SimpleMeterRegistry());
+
+        assertEquals(productCatalog.etag("/products?"), otherReplica.etag("/products?"));
+        assertNotEquals(productCatalog.etag("/products?"), productCatalog.etag("/products?page=1"));
+    }
+
+    @Test
+    void testEtagSurvivesAnUnchangedRefresh() {
+        String etag = productCatalog.etag("/products?");
+
+        productCatalog.refresh();
+
+        assertEquals(etag, productCatalog.etag("/products?"));
+    }
+
+    @Test
+    void testEtagChangesWithTheProducts() {
+        String etag = productCatalog.etag("/products?");
+
+        productCatalog.put(Product.builder().id("p3").name("Lantern").price(6).build());
+
+        assertNotEquals(etag, productCatalog.etag("/products?"));
+    }
+}
@@ -1,8 +1,12 @@
 package com.code.camping.integration;
 
+import com.code.camping.repository.RevokedTokenRepository;
+import com.code.camping.security.JwtUtils;
+import com.code.camping.security.TokenRevocationList;
 import com.code.camping.utils.dto.request.LoginUserRequest;
 import com.code.camping.utils.dto.request.RegisterUserRequest;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Jwts;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
@@ -14,6 +18,11 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.context.WebApplicationContext;
 
+import java.util.Date;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -29,6 +38,15 @@ class AuthIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private TokenRevocationList tokenRevocationList;
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
     private MockMvc mockMvc;
 
     @Test
@@ -108,4 +126,31 @@ class AuthIntegrationTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.data.accessToken").value(""));
     }
-} 
\ No newline at end of file
+
+    @Test
+    void testLogoutWithTokenWithoutIdIsRejected() throws Exception {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+        String token = Jwts.builder()
+                .subject("camper@example.com")
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(jwtUtils.getSigningKey())
+                .compact();
+
+        mockMvc.perform(post("/api/v1/auth/logout")
+                .header("Authorization", "Bearer " + token))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testRevocationOnAnotherReplicaIsPickedUpByReload() {
+        TokenRevocationList otherReplica = new TokenRevocationList(revokedTokenRepository, 1000, 60_000);
+        otherReplica.load();
+        String jti = UUID.randomUUID().toString();
+
+        tokenRevocationList.revoke(jti);
+        assertFalse(otherReplica.isRevoked(jti));
+
+        otherReplica.reload();
+        assertTrue(otherReplica.isRevoked(jti));
+    }
+}
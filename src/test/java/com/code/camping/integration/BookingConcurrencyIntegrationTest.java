@@ -0,0 +1,240 @@
+package com.code.camping.integration;
+
+import com.code.camping.entity.Product;
+import com.code.camping.entity.Transaction;
+import com.code.camping.entity.User;
+import com.code.camping.entity.Wallet;
+import com.code.camping.exception.InsufficientBalanceException;
+import com.code.camping.exception.InsufficientStockException;
+import com.code.camping.repository.ProductInventoryRepository;
+import com.code.camping.repository.TransactionRepository;
+import com.code.camping.repository.UserRepository;
+import com.code.camping.repository.WalletRepository;
+import com.code.camping.service.ProductService;
+import com.code.camping.service.TransactionService;
+import com.code.camping.utils.dto.request.ProductRequest;
+import com.code.camping.utils.dto.request.TransactionRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@ActiveProfiles("test")
+class BookingConcurrencyIntegrationTest {
+
+    private static final int BOOKINGS = 100;
+    private static final int PRICE_PER_DAY = 10;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private ProductInventoryRepository productInventoryRepository;
+
+    @Test
+    void testParallelBookingsDebitEveryBooking() throws Exception {
+        String userId = userWithBalance(BOOKINGS * PRICE_PER_DAY);
+        String productId = product(null);
+
+        List<Throwable> failures = bookInParallel(userId, productId);
+
+        assertEquals(List.of(), failures);
+        assertEquals(0, walletRepository.findByUserId(userId).getBalance());
+        assertEquals(BOOKINGS, transactionRepository.findByUserId(userId).size());
+    }
+
+    @Test
+    void testParallelBookingsNeverOverdraw() throws Exception {
+        String userId = userWithBalance(BOOKINGS / 2 * PRICE_PER_DAY);
+        String productId = product(null);
+
+        List<Throwable> failures = bookInParallel(userId, productId);
+
+        assertEquals(BOOKINGS / 2, failures.size());
+        failures.forEach(failure -> assertInstanceOf(InsufficientBalanceException.class, failure));
+        assertEquals(0, walletRepository.findByUserId(userId).getBalance());
+        assertEquals(BOOKINGS / 2, transactionRepository.findByUserId(userId).size());
+    }
+
+    @Test
+    void testParallelBookingsNeverOversellTrackedStock() throws Exception {
+        String userId = userWithBalance(BOOKINGS * PRICE_PER_DAY);
+        String productId = product(BOOKINGS / 2);
+
+        List<Throwable> failures = bookInParallel(userId, productId);
+
+        assertEquals(BOOKINGS / 2, failures.size());
+        failures.forEach(failure -> assertInstanceOf(InsufficientStockException.class, failure));
+        assertEquals(BOOKINGS / 2 * PRICE_PER_DAY, walletRepository.findByUserId(userId).getBalance());
+        assertEquals(BOOKINGS / 2, transactionRepository.findByUserId(userId).size());
+        assertEquals(List.of(BOOKINGS / 2), productInventoryRepository.findAll().stream()
+                .filter(day -> day.getProductId().equals(productId))
+                .map(day -> day.getReserved())
+                .toList());
+    }
+
+    @Test
+    void testNonPositiveQuantityNeverCreditsTheWallet() {
+        String userId = userWithBalance(PRICE_PER_DAY);
+        String productId = product(null);
+
+        for (int quantity : new int[]{0, -5}) {
+            TransactionRequest request = TransactionRequest.builder()
+                    .product_id(productId)
+                    .quantity(quantity)
+                    .dateStart(day(7))
+                    .dateEnd(day(8))
+                    .build();
+            HttpServerErrorException rejected = assertThrows(HttpServerErrorException.class,
+                    () -> transactionService.create(request, userId));
+            assertEquals(HttpStatus.BAD_REQUEST, rejected.getStatusCode());
+        }
+
+        assertEquals(PRICE_PER_DAY, walletRepository.findByUserId(userId).getBalance());
+        assertEquals(List.of(), transactionRepository.findByUserId(userId));
+    }
+
+    @Test
+    void testRebookIsLimitedToTheOwnerAndPricedFromTheProduct() {
+        String ownerId = userWithBalance(10 * PRICE_PER_DAY);
+        String otherId = userWithBalance(10 * PRICE_PER_DAY);
+        String productId = product(null);
+        Transaction booked = transactionService.create(TransactionRequest.builder()
+                .product_id(productId)
+                .quantity(1)
+                .dateStart(day(7))
+                .dateEnd(day(8))
+                .build(), ownerId);
+
+        TransactionRequest takeover = TransactionRequest.builder()
+                .id(booked.getId())
+                .product_id(productId)
+                .quantity(1)
+                .price_history(0)
+                .dateStart(day(7))
+                .dateEnd(day(8))
+                .build();
+        HttpServerErrorException rejected = assertThrows(HttpServerErrorException.class,
+                () -> transactionService.update(takeover, otherId));
+        assertEquals(HttpStatus.NOT_FOUND, rejected.getStatusCode());
+        assertEquals(ownerId, transactionRepository.findById(booked.getId()).orElseThrow().getUser().getId());
+        assertEquals(10 * PRICE_PER_DAY, walletRepository.findByUserId(otherId).getBalance());
+
+        Transaction rebooked = transactionService.update(TransactionRequest.builder()
+                .id(booked.getId())
+                .quantity(1)
+                .price_history(1)
+                .dateStart(day(7))
+                .dateEnd(day(10))
+                .build(), ownerId);
+
+        assertEquals(3 * PRICE_PER_DAY, rebooked.getTotal());
+        assertEquals(PRICE_PER_DAY, rebooked.getPrice_history());
+        assertEquals(7 * PRICE_PER_DAY, walletRepository.findByUserId(ownerId).getBalance());
+    }
+
+    @Test
+    void testBookingWithoutRecordedQuantityCanBeDeleted() {
+        String userId = userWithBalance(0);
+        String productId = product(5);
+        Transaction legacy = transactionRepository.save(Transaction.builder()
+                .user(userRepository.findById(userId).orElseThrow())
+                .product(productService.getById(productId))
+                .dateStart(day(7))
+                .dateEnd(day(8))
+                .total(PRICE_PER_DAY)
+                .build());
+
+        transactionService.delete(legacy.getId());
+
+        assertTrue(transactionRepository.findById(legacy.getId()).isEmpty());
+    }
+
+    private List<Throwable> bookInParallel(String userId, String productId) throws InterruptedException {
+        Date start = day(7);
+        Date end = day(8);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch ready = new CountDownLatch(1);
+        List<Future<?>> bookings = new ArrayList<>();
+        for (int i = 0; i < BOOKINGS; i++) {
+            bookings.add(executor.submit(() -> {
+                ready.await();
+                TransactionRequest request = TransactionRequest.builder()
+                        .product_id(productId)
+                        .quantity(1)
+                        .dateStart(start)
+                        .dateEnd(end)
+                        .build();
+                return transactionService.create(request, userId);
+            }));
+        }
+        ready.countDown();
+
+        List<Throwable> failures = new ArrayList<>();
+        for (Future<?> booking : bookings) {
+            try {
+                booking.get(30, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                failures.add(e.getCause());
+            } catch (Exception e) {
+                failures.add(e);
+            }
+        }
+        executor.shutdown();
+        return failures;
+    }
+
+    private static Date day(int daysFromToday) {
+        return Date.from(LocalDate.now(ZoneOffset.UTC).plusDays(daysFromToday).atStartOfDay(ZoneOffset.UTC).toInstant());
+    }
+
+    private String userWithBalance(int balance) {
+        User user = userRepository.save(User.builder()
+                .name("Camper")
+                .email(UUID.randomUUID() + "@example.com")
+                .password("password")
+                .build());
+        walletRepository.save(Wallet.builder().user(user).balance(balance).build());
+        return user.getId();
+    }
+
+    private String product(Integer stock) {
+        ProductRequest request = new ProductRequest();
+        request.setName("Dome Tent");
+        request.setPrice(PRICE_PER_DAY);
+        request.setStock(stock);
+        return productService.create(request).getId();
+    }
+}
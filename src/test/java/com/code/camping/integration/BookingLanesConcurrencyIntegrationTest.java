@@ -0,0 +1,8 @@
+package com.code.camping.integration;
+
+import org.springframework.test.context.TestPropertySource;
+
+/** Runs the parallel booking scenarios again with every wallet mutation going through its lane. */
+@TestPropertySource(properties = {"booking.lanes.enabled=true", "booking.lanes.count=4"})
+class BookingLanesConcurrencyIntegrationTest extends BookingConcurrencyIntegrationTest {
+}
@@ -0,0 +1,210 @@
+package com.code.camping.integration;
+
+import com.code.camping.entity.Transaction;
+import com.code.camping.entity.User;
+import com.code.camping.entity.Wallet;
+import com.code.camping.repository.ProductInventoryRepository;
+import com.code.camping.repository.TransactionRepository;
+import com.code.camping.repository.UserRepository;
+import com.code.camping.repository.WalletRepository;
+import com.code.camping.security.AccountPrincipal;
+import com.code.camping.service.ProductService;
+import com.code.camping.service.TransactionService;
+import com.code.camping.utils.dto.request.ProductRequest;
+import com.code.camping.utils.dto.request.TransactionRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@ActiveProfiles("test")
+class CheckoutIntegrationTest {
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private ProductInventoryRepository productInventoryRepository;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testCartIsChargedOnceForAllItems() throws Exception {
+        String userId = userWithBalance(100);
+        String tentId = product(10, null);
+        String stoveId = product(20, 5);
+
+        checkout(userId, item(tentId, 1, 2), item(stoveId, 2, 1))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.data.length()").value(2));
+
+        assertEquals(100 - 20 - 40, walletRepository.findByUserId(userId).getBalance());
+        assertEquals(2, transactionRepository.findByUserId(userId).size());
+    }
+
+    @Test
+    void testItemIdsFromTheClientNeverOverwriteBookings() throws Exception {
+        String ownerId = userWithBalance(10);
+        String userId = userWithBalance(10);
+        String productId = product(10, null);
+        Transaction booked = transactionService.create(item(productId, 1, 1), ownerId);
+
+        TransactionRequest item = item(productId, 1, 1);
+        item.setId(booked.getId());
+        checkout(userId, item).andExpect(status().isCreated());
+
+        assertEquals(ownerId, transactionRepository.findById(booked.getId()).orElseThrow().getUser().getId());
+        assertEquals(1, transactionRepository.findByUserId(userId).size());
+    }
+
+    @Test
+    void testCartIsRolledBackWhenOneItemIsOutOfStock() throws Exception {
+        String userId = userWithBalance(100);
+        String tentId = product(10, 5);
+        String stoveId = product(10, 1);
+
+        checkout(userId, item(tentId, 1, 1), item(stoveId, 2, 1))
+                .andExpect(status().isConflict());
+
+        assertEquals(100, walletRepository.findByUserId(userId).getBalance());
+        assertEquals(List.of(), transactionRepository.findByUserId(userId));
+        assertEquals(0, reserved(tentId));
+    }
+
+    @Test
+    void testCartBeyondTheBalanceIsRejected() throws Exception {
+        String userId = userWithBalance(15);
+        String tentId = product(10, 5);
+
+        checkout(userId, item(tentId, 1, 1), item(tentId, 1, 1))
+                .andExpect(status().isPaymentRequired());
+
+        assertEquals(15, walletRepository.findByUserId(userId).getBalance());
+        assertEquals(List.of(), transactionRepository.findByUserId(userId));
+        assertEquals(0, reserved(tentId));
+    }
+
+    @Test
+    void testUnknownProductIsNotFound() throws Exception {
+        String userId = userWithBalance(100);
+        String tentId = product(10, null);
+
+        checkout(userId, item(tentId, 1, 1), item(UUID.randomUUID().toString(), 1, 1))
+                .andExpect(status().isNotFound());
+
+        assertEquals(100, walletRepository.findByUserId(userId).getBalance());
+        assertEquals(List.of(), transactionRepository.findByUserId(userId));
+    }
+
+    @Test
+    void testOverflowingTotalIsRejected() throws Exception {
+        String userId = userWithBalance(100);
+        String productId = product(Integer.MAX_VALUE / 2, null);
+
+        checkout(userId, item(productId, 1, 1), item(productId, 1, 1), item(productId, 1, 1))
+                .andExpect(status().isBadRequest());
+        checkout(userId, item(productId, 3, 1))
+                .andExpect(status().isBadRequest());
+
+        assertEquals(100, walletRepository.findByUserId(userId).getBalance());
+        assertEquals(List.of(), transactionRepository.findByUserId(userId));
+    }
+
+    private ResultActions checkout(String userId, TransactionRequest... items) throws Exception {
+        AccountPrincipal account = new AccountPrincipal(userId, userId + "@example.com", null, "USER");
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(account, null, account.getAuthorities()));
+        return mockMvc.perform(post("/transaction/checkout")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(items))));
+    }
+
+    private static TransactionRequest item(String productId, int quantity, int days) {
+        return TransactionRequest.builder()
+                .product_id(productId)
+                .quantity(quantity)
+                .dateStart(day(7))
+                .dateEnd(day(7 + days))
+                .build();
+    }
+
+    private static Date day(int daysFromToday) {
+        return Date.from(LocalDate.now(ZoneOffset.UTC).plusDays(daysFromToday).atStartOfDay(ZoneOffset.UTC).toInstant());
+    }
+
+    private int reserved(String productId) {
+        return productInventoryRepository.findAll().stream()
+                .filter(day -> day.getProductId().equals(productId))
+                .mapToInt(day -> day.getReserved())
+                .sum();
+    }
+
+    private String userWithBalance(int balance) {
+        User user = userRepository.save(User.builder()
+                .name("Camper")
+                .email(UUID.randomUUID() + "@example.com")
+                .password("password")
+                .build());
+        walletRepository.save(Wallet.builder().user(user).balance(balance).build());
+        return user.getId();
+    }
+
+    private String product(int price, Integer stock) {
+        ProductRequest request = new ProductRequest();
+        request.setName("Dome Tent");
+        request.setPrice(price);
+        request.setStock(stock);
+        return productService.create(request).getId();
+    }
+}
@@ -0,0 +1,241 @@
+package com.code.camping.integration;
+
+import com.code.camping.filter.IdempotencyFilter;
+import com.code.camping.idempotency.IdempotencyStore;
+import com.code.camping.idempotency.IdempotencyStore.Claim;
+import com.code.camping.idempotency.IdempotencyStore.Outcome;
+import com.code.camping.repository.IdempotencyKeyRepository;
+import com.code.camping.security.AccountPrincipal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@ActiveProfiles("test")
+class IdempotencyIntegrationTest {
+
+    private static final AccountPrincipal ACCOUNT = new AccountPrincipal("account-1", "camper@example.com", null, "USER");
+
+    @Autowired
+    private IdempotencyFilter idempotencyFilter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    private final TopUpController topUpController = new TopUpController();
+    private final String key = UUID.randomUUID().toString();
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(topUpController).addFilters(idempotencyFilter).build();
+        authenticate();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testRetryReplaysRecordedResponse() throws Exception {
+        topUp(mockMvc, 10)
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.call").value(1));
+
+        topUp(mockMvc, 10)
+                .andExpect(status().isCreated())
+                .andExpect(header().string(IdempotencyFilter.REPLAYED_HEADER, "true"))
+                .andExpect(jsonPath("$.call").value(1));
+        assertEquals(1, topUpController.calls.get());
+    }
+
+    @Test
+    void testKeyReusedForDifferentRequestIsRejected() throws Exception {
+        topUp(mockMvc, 10).andExpect(status().isCreated());
+
+        topUp(mockMvc, 20).andExpect(status().isUnprocessableEntity());
+        assertEquals(1, topUpController.calls.get());
+    }
+
+    @Test
+    void testRetryWhileFirstAttemptRunsIsRejected() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<MvcResult> first = startHeldTopUp(executor);
+
+            topUp(mockMvc, 10).andExpect(status().isConflict());
+
+            topUpController.proceed.countDown();
+            assertEquals(HttpStatus.CREATED.value(), first.get(5, TimeUnit.SECONDS).getResponse().getStatus());
+            assertEquals(1, topUpController.calls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testFailedRequestReleasesKey() throws Exception {
+        topUpController.fail = true;
+        topUp(mockMvc, 10).andExpect(status().isInternalServerError());
+
+        topUpController.fail = false;
+        topUp(mockMvc, 10)
+                .andExpect(status().isCreated())
+                .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals(2, topUpController.calls.get());
+    }
+
+    @Test
+    void testClaimWithExpiredLeaseIsTakenOver() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<MvcResult> first = startHeldTopUp(executor);
+            // As if the first attempt had died and its lease had run out
+            jdbcTemplate.update("UPDATE idempotency_keys SET locked_until = TIMESTAMP '2000-01-01 00:00:00' WHERE id = ?",
+                    ACCOUNT.getId() + ":" + key);
+
+            topUp(mockMvc, 10)
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$.call").value(2));
+            topUpController.proceed.countDown();
+            first.get(5, TimeUnit.SECONDS);
+            assertEquals(2, topUpController.calls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testSuccessfulRequestKeepsKeyWhenRecordingFails() throws Exception {
+        IdempotencyStore idempotencyStore = mock(IdempotencyStore.class);
+        when(idempotencyStore.claim(anyString(), anyString())).thenReturn(new Claim(Outcome.CLAIMED, null));
+        doThrow(new DataAccessResourceFailureException("Database is down"))
+                .when(idempotencyStore).complete(anyString(), anyString(), any());
+        MockMvc failingStore = MockMvcBuilders.standaloneSetup(topUpController)
+                .addFilters(new IdempotencyFilter(idempotencyStore, new SimpleMeterRegistry()))
+                .build();
+
+        topUp(failingStore, 10)
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.call").value(1));
+        verify(idempotencyStore, never()).release(anyString());
+    }
+
+    @Test
+    void testExecutedKeyIsNeverRunAgainWhenRecordingFailed() throws Exception {
+        IdempotencyKeyRepository failingRepository = mock(IdempotencyKeyRepository.class, delegatesTo(idempotencyKeyRepository));
+        doThrow(new DataAccessResourceFailureException("Database is down"))
+                .when(failingRepository).complete(anyString(), anyInt(), any(), any());
+        MockMvc failingStore = MockMvcBuilders.standaloneSetup(topUpController)
+                .addFilters(new IdempotencyFilter(store(failingRepository), new SimpleMeterRegistry()))
+                .build();
+        topUp(failingStore, 10).andExpect(status().isCreated());
+
+        // A retry on another replica after the claim's lease has run out
+        jdbcTemplate.update("UPDATE idempotency_keys SET locked_until = TIMESTAMP '2000-01-01 00:00:00' WHERE id = ?",
+                ACCOUNT.getId() + ":" + key);
+        MockMvc otherReplica = MockMvcBuilders.standaloneSetup(topUpController)
+                .addFilters(new IdempotencyFilter(store(idempotencyKeyRepository), new SimpleMeterRegistry()))
+                .build();
+
+        topUp(otherReplica, 10).andExpect(status().isConflict());
+        assertEquals(1, topUpController.calls.get());
+    }
+
+    private static IdempotencyStore store(IdempotencyKeyRepository repository) {
+        return new IdempotencyStore(repository, Duration.ofHours(24), Duration.ofMinutes(1), 100);
+    }
+
+    private Future<MvcResult> startHeldTopUp(ExecutorService executor) throws InterruptedException {
+        topUpController.hold();
+        Future<MvcResult> first = executor.submit(() -> {
+            authenticate();
+            return topUp(mockMvc, 10).andReturn();
+        });
+        assertTrue(topUpController.entered.await(5, TimeUnit.SECONDS));
+        return first;
+    }
+
+    private ResultActions topUp(MockMvc mockMvc, int amount) throws Exception {
+        return mockMvc.perform(post("/wallets/top-up")
+                .header(IdempotencyFilter.KEY_HEADER, key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"amount\":" + amount + "}"));
+    }
+
+    private static void authenticate() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(ACCOUNT, null, ACCOUNT.getAuthorities()));
+    }
+
+    @RestController
+    @RequestMapping("/wallets/top-up")
+    static class TopUpController {
+
+        private final AtomicInteger calls = new AtomicInteger();
+        private volatile boolean fail;
+        private volatile CountDownLatch entered;
+        private volatile CountDownLatch proceed;
+
+        void hold() {
+            entered = new CountDownLatch(1);
+            proceed = new CountDownLatch(1);
+        }
+
+        @PostMapping
+        public ResponseEntity<?> topUp(@RequestBody Map<String, Object> body) throws InterruptedException {
+            int call = calls.incrementAndGet();
+            CountDownLatch held = proceed;
+            if (held != null && call == 1) {
+                entered.countDown();
+                held.await(5, TimeUnit.SECONDS);
+            }
+            if (fail) {
+                return ResponseEntity.internalServerError().build();
+            }
+            return ResponseEntity.status(HttpStatus.CREATED).body(Map.of("call", call, "amount", body.get("amount")));
+        }
+    }
+}
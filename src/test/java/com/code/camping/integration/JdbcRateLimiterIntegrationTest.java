@@ -0,0 +1,103 @@
+package com.code.camping.integration;
+
+import com.code.camping.ratelimit.JdbcRateLimiter;
+import com.code.camping.ratelimit.RateLimiter;
+import com.code.camping.repository.RateLimitBucketRepository;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.ConsumptionProbe;
+import io.github.bucket4j.Refill;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {"rate-limit.mode=jdbc", "rate-limit.jdbc.prefetch=3"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@ActiveProfiles("test")
+class JdbcRateLimiterIntegrationTest {
+
+    private static final Bandwidth TEN_PER_HOUR = Bandwidth.classic(10, Refill.greedy(10, Duration.ofHours(1)));
+
+    @Autowired
+    private RateLimiter rateLimiter;
+
+    @Autowired
+    private RateLimitBucketRepository rateLimitBucketRepository;
+
+    @Test
+    void testJdbcModeIsSelected() {
+        assertInstanceOf(JdbcRateLimiter.class, rateLimiter);
+    }
+
+    @Test
+    void testLimitIsSharedBetweenReplicas() {
+        RateLimiter otherReplica = new JdbcRateLimiter(rateLimitBucketRepository, 3, 1000, Duration.ofMinutes(1));
+
+        int consumed = 0;
+        for (int i = 0; i < 10; i++) {
+            if (rateLimiter.tryConsume("shared", TEN_PER_HOUR).isConsumed()) {
+                consumed++;
+            }
+            if (otherReplica.tryConsume("shared", TEN_PER_HOUR).isConsumed()) {
+                consumed++;
+            }
+        }
+
+        assertEquals(10, consumed);
+        ConsumptionProbe rejected = otherReplica.tryConsume("shared", TEN_PER_HOUR);
+        assertFalse(rejected.isConsumed());
+        assertTrue(rejected.getNanosToWaitForRefill() > 0);
+    }
+
+    @Test
+    void testPrefetchedTokensAvoidStoreRoundTrips() {
+        rateLimiter.tryConsume("prefetch", TEN_PER_HOUR);
+
+        assertEquals(7, rateLimitBucketRepository.findById("prefetch").orElseThrow().getTokens());
+        assertTrue(rateLimiter.tryConsume("prefetch", TEN_PER_HOUR).isConsumed());
+        assertEquals(7, rateLimitBucketRepository.findById("prefetch").orElseThrow().getTokens());
+    }
+
+    @Test
+    void testUnusedPrefetchedTokensAreReturnedWhenBatchExpires() throws InterruptedException {
+        // The configured limiter uses the default prefetch TTL
+        rateLimiter.tryConsume("returned", TEN_PER_HOUR);
+        assertEquals(7, rateLimitBucketRepository.findById("returned").orElseThrow().getTokens());
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (rateLimitBucketRepository.findById("returned").orElseThrow().getTokens() != 9
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(9, rateLimitBucketRepository.findById("returned").orElseThrow().getTokens());
+
+        RateLimiter otherReplica = new JdbcRateLimiter(rateLimitBucketRepository, 3, 1000, Duration.ofMinutes(1));
+        int consumed = 0;
+        while (otherReplica.tryConsume("returned", TEN_PER_HOUR).isConsumed()) {
+            consumed++;
+        }
+        assertEquals(9, consumed);
+    }
+
+    @Test
+    void testRejectedKeyIsRejectedLocallyUntilRefill() {
+        RateLimiter replica = new JdbcRateLimiter(rateLimitBucketRepository, 3, 1000, Duration.ofMinutes(1));
+        for (int i = 0; i < 10; i++) {
+            assertTrue(replica.tryConsume("exhausted", TEN_PER_HOUR).isConsumed());
+        }
+        assertFalse(replica.tryConsume("exhausted", TEN_PER_HOUR).isConsumed());
+
+        // A store round trip would find no row and start a full bucket
+        rateLimitBucketRepository.deleteById("exhausted");
+
+        ConsumptionProbe rejected = replica.tryConsume("exhausted", TEN_PER_HOUR);
+        assertFalse(rejected.isConsumed());
+        assertTrue(rejected.getNanosToWaitForRefill() > 0);
+        assertTrue(rateLimitBucketRepository.findById("exhausted").isEmpty());
+    }
+}
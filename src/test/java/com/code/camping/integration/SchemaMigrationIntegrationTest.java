@@ -0,0 +1,132 @@
+package com.code.camping.integration;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@ActiveProfiles("test")
+class SchemaMigrationIntegrationTest {
+
+    // What ddl-auto=update created for the entities before the schema moved to migrations
+    private static final String PRE_MIGRATION_SCHEMA = """
+            create table admins (id varchar(255) not null, email varchar(255), name varchar(255), password varchar(255), primary key (id));
+            create table products (price integer, id varchar(255) not null, name varchar(255), primary key (id));
+            create table transactions (date_end timestamp(6), date_start timestamp(6), duration integer, price_history integer, quantity integer, total integer, id varchar(255) not null, product_id varchar(255) not null, user_id varchar(255) not null, primary key (id));
+            create table users (id varchar(255) not null, email varchar(255), name varchar(255), password varchar(255), primary key (id));
+            create table wallets (balance integer, id varchar(255) not null, user_id varchar(255) not null, primary key (id));
+            alter table transactions add constraint FKmtgy3yyxm7ge6u1oxrb6ji5oj foreign key (product_id) references products;
+            alter table transactions add constraint FKqwv7rmvc8va8rep7piikrojds foreign key (user_id) references users;
+            alter table wallets add constraint FKc1foyisidw7wqqrkamafuwn4e foreign key (user_id) references users;
+            """;
+
+    private static final String COLUMNS = "SELECT TABLE_NAME || '.' || COLUMN_NAME || ' ' || DATA_TYPE || ' ' || IS_NULLABLE "
+            + "FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_SCHEMA = 'PUBLIC' AND TABLE_NAME <> 'flyway_schema_history' "
+            + "ORDER BY TABLE_NAME, COLUMN_NAME";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private Flyway flyway;
+
+    @Test
+    void testMigrationsAreApplied() {
+        assertEquals(0, flyway.info().pending().length);
+        MigrationInfo[] all = flyway.info().all();
+        assertEquals(all[all.length - 1].getVersion(), flyway.info().current().getVersion());
+    }
+
+    @Test
+    void testPreMigrationDatabaseIsUpgradedToTheCurrentSchema() {
+        EmbeddedDatabase legacy = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true)
+                .build();
+        try {
+            JdbcTemplate legacyJdbc = new JdbcTemplate(legacy);
+            for (String statement : PRE_MIGRATION_SCHEMA.split(";")) {
+                if (!statement.isBlank()) {
+                    legacyJdbc.execute(statement);
+                }
+            }
+            legacyJdbc.update("INSERT INTO products (id, name, price) VALUES ('p1', 'Dome Tent', 100)");
+
+            Flyway legacyFlyway = Flyway.configure()
+                    .dataSource(legacy)
+                    .baselineOnMigrate(true)
+                    .load();
+            legacyFlyway.migrate();
+
+            MigrationInfo[] applied = legacyFlyway.info().applied();
+            assertTrue(applied[0].getType().isBaseline());
+            assertEquals(flyway.info().current().getVersion(), legacyFlyway.info().current().getVersion());
+            List<String> upgraded = legacyJdbc.queryForList(COLUMNS, String.class);
+            assertEquals(jdbcTemplate.queryForList(COLUMNS, String.class), upgraded);
+            assertEquals(100, legacyJdbc.queryForObject("SELECT price FROM products WHERE id = 'p1'", Integer.class));
+        } finally {
+            legacy.shutdown();
+        }
+    }
+
+    @Test
+    void testLoginLooksUpUsersByEmailIndex() {
+        String plan = explain("SELECT u.id, u.email, u.name, u.password FROM users u WHERE u.email = 'camper@example.com'");
+
+        assertUsesIndex(plan, "UX_USERS_EMAIL");
+    }
+
+    @Test
+    void testLoginLooksUpAdminsByEmailIndex() {
+        String plan = explain("SELECT a.id, a.email, a.name, a.password FROM admins a WHERE a.email = 'admin@example.com'");
+
+        assertUsesIndex(plan, "UX_ADMINS_EMAIL");
+    }
+
+    @Test
+    void testWalletDebitFindsWalletByUserIndex() {
+        String plan = explain("UPDATE wallets SET balance = balance - 10 WHERE user_id = 'user-1' AND balance >= 10");
+
+        // The foreign key's own index, named after the constraint
+        assertUsesIndex(plan, "FK_WALLETS_USER");
+    }
+
+    @Test
+    void testHistoryReadsTransactionsInIndexOrder() {
+        String plan = explain("SELECT t.id, t.date_start FROM transactions t WHERE t.user_id = 'user-1' "
+                + "AND t.date_start >= TIMESTAMP '2030-01-01 00:00:00' ORDER BY t.date_start DESC");
+
+        assertUsesIndex(plan, "IX_TRANSACTIONS_USER_ID_DATE_START");
+    }
+
+    @Test
+    void testEmailIsUniquePerTable() {
+        jdbcTemplate.update("INSERT INTO users (id, email) VALUES ('u1', 'same@example.com')");
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> jdbcTemplate.update("INSERT INTO users (id, email) VALUES ('u2', 'same@example.com')"));
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+    }
+
+    private static void assertUsesIndex(String plan, String index) {
+        assertTrue(plan.toUpperCase().contains(index), () -> "Expected " + index + " in plan: " + plan);
+        assertFalse(plan.contains("tableScan"), () -> "Expected no table scan in plan: " + plan);
+    }
+}
@@ -3,6 +3,8 @@ package com.code.camping.service;
 import com.code.camping.entity.User;
 import com.code.camping.exception.ResourceNotFoundException;
 import com.code.camping.repository.UserRepository;
+import com.code.camping.repository.WalletRepository;
+import com.code.camping.security.AccountCache;
 import com.code.camping.security.JwtUtils;
 import com.code.camping.service.impl.UserServiceImpl;
 import com.code.camping.utils.dto.request.LoginUserRequest;
@@ -41,6 +43,15 @@ class UserServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private AccountCache accountCache;
+
+    @Mock
+    private WalletRepository walletRepository;
+
+    @Mock
+    private TransactionService transactionService;
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -188,6 +199,7 @@ class UserServiceTest {
         assertEquals(testUser.getId(), result.getId());
         verify(userRepository).findById(testUser.getId());
         verify(userRepository).saveAndFlush(any(User.class));
+        verify(accountCache, atLeastOnce()).evict(testUser.getEmail());
     }
 
     @Test
@@ -206,14 +218,18 @@ class UserServiceTest {
     void deleteUser_Success() {
         // Given
         when(userRepository.findById(anyString())).thenReturn(Optional.of(testUser));
-        doNothing().when(userRepository).deleteById(anyString());
+        when(userRepository.deleteUserById(anyString())).thenReturn(1);
 
         // When
         userService.delete(testUser.getId());
 
         // Then
         verify(userRepository).findById(testUser.getId());
-        verify(userRepository).deleteById(testUser.getId());
+        verify(transactionService).deleteByUserId(testUser.getId());
+        verify(walletRepository).deleteByUserId(testUser.getId());
+        verify(userRepository).deleteUserById(testUser.getId());
+        verify(userRepository, never()).deleteById(anyString());
+        verify(accountCache).evict(testUser.getEmail());
     }
 
     @Test
@@ -224,6 +240,7 @@ class UserServiceTest {
         // When & Then
         assertThrows(ResourceNotFoundException.class, () -> userService.delete("non-existent-id"));
         verify(userRepository).findById("non-existent-id");
-        verify(userRepository, never()).deleteById(anyString());
+        verify(userRepository, never()).deleteUserById(anyString());
+        verifyNoInteractions(transactionService, walletRepository);
     }
 } 
\ No newline at end of file